@@ -0,0 +1,116 @@
+import edu.rit.util.Random;
+
+/**
+ * Class AliasSampler draws indices 0..n-1 with probability proportional
+ * to given weights using the alias method of Walker, built with the
+ * algorithm of Vose. Building the table is O(n) and every draw after
+ * that is O(1), one random index and one random double.
+ *
+ * The arrays are kept between calls to build(), they are only replaced
+ * when more weights are given than before.
+ *
+ * @author Satyajeet Shahane, Ajeeth Kannan
+ */
+public class AliasSampler {
+
+	private double[] probability; // probability of keeping index i
+	private int[] alias; // index drawn instead of i otherwise
+	private int[] small; // indices with scaled weight below 1
+	private int[] large; // indices with scaled weight of 1 or more
+	private int n; // number of weights
+
+	/**
+	 * Parameterized constructor
+	 *
+	 * @param capacity number of weights expected
+	 */
+	public AliasSampler(int capacity) {
+		allocate(capacity);
+	}
+
+	/**
+	 * Builds the table for new weights.
+	 *
+	 * @param weight weight of each index, none negative
+	 * @param n number of weights
+	 * @exception IllegalArgumentException if n is not positive or the
+	 * weights add up to 0
+	 */
+	public void build(double[] weight, int n) {
+		if (n <= 0) {
+			throw new IllegalArgumentException("AliasSampler needs at least one weight");
+		}
+		if (probability.length < n) {
+			allocate(n);
+		}
+		this.n = n;
+
+		double total = 0;
+		for (int i = 0; i < n; i++) {
+			total = total + weight[i];
+		}
+		if (total <= 0) {
+			throw new IllegalArgumentException("AliasSampler weights add up to " + total);
+		}
+
+		// scale the weights so that their average is 1
+		int smallSize = 0;
+		int largeSize = 0;
+		for (int i = 0; i < n; i++) {
+			probability[i] = weight[i] * n / total;
+			if (probability[i] < 1) {
+				small[smallSize++] = i;
+			}
+			else {
+				large[largeSize++] = i;
+			}
+		}
+
+		// fill up every small index with a large one
+		while (smallSize > 0 && largeSize > 0) {
+			int less = small[--smallSize];
+			int more = large[--largeSize];
+			alias[less] = more;
+			probability[more] = probability[more] + probability[less] - 1;
+			if (probability[more] < 1) {
+				small[smallSize++] = more;
+			}
+			else {
+				large[largeSize++] = more;
+			}
+		}
+
+		// what is left is 1 up to rounding errors
+		while (largeSize > 0) {
+			probability[large[--largeSize]] = 1;
+		}
+		while (smallSize > 0) {
+			probability[small[--smallSize]] = 1;
+		}
+	}
+
+	/**
+	 * draws one index
+	 *
+	 * @param random random for the draw
+	 * @return index between 0 and n-1
+	 */
+	public int next(Random random) {
+		int i = random.nextInt(n);
+		return random.nextDouble() < probability[i] ? i : alias[i];
+	}
+
+	// number of weights of the last build()
+	public int size() {
+		return n;
+	}
+
+	// allocates the arrays for capacity weights
+	private void allocate(int capacity) {
+		probability = new double[capacity];
+		alias = new int[capacity];
+		small = new int[capacity];
+		large = new int[capacity];
+	}
+
+}
@@ -0,0 +1,62 @@
+/**
+ * Class CityQueue holds the cities a local search still has to look
+ * at. A city that is not in the queue has its don't-look bit set. A
+ * city is in the queue at most once, so the queue never holds more
+ * than N cities.
+ *
+ * @author Satyajeet Shahane, Ajeeth Kannan
+ */
+public class CityQueue {
+
+	private final int[] queue; // cities in the queue, from head on
+	private final boolean[] queued; // cities in the queue
+	private int head; // first city of the queue
+	private int count; // cities in the queue
+
+	/**
+	 * Parameterized constructor
+	 *
+	 * @param N number of cities
+	 */
+	public CityQueue(int N) {
+		queue = new int[N];
+		queued = new boolean[N];
+	}
+
+	/**
+	 * adds all the cities of a tour in the order of the tour
+	 *
+	 * @param path array holding the tour
+	 * @param off offset of the tour
+	 */
+	public void pushAll(int[] path, int off) {
+		for (int i = 0; i < queue.length; i++) {
+			push(path[off + i]);
+		}
+	}
+
+	// turns off the don't-look bit of a city
+	public void push(int city) {
+		if (!queued[city]) {
+			queued[city] = true;
+			int tail = head + count;
+			queue[tail >= queue.length ? tail - queue.length : tail] = city;
+			count++;
+		}
+	}
+
+	// takes the first city, its don't-look bit is set
+	public int pop() {
+		int city = queue[head];
+		head = head + 1 == queue.length ? 0 : head + 1;
+		count--;
+		queued[city] = false;
+		return city;
+	}
+
+	// checks if no city is left
+	public boolean isEmpty() {
+		return count == 0;
+	}
+
+}
@@ -0,0 +1,110 @@
+import java.io.IOException;
+import edu.rit.io.InStream;
+import edu.rit.io.OutStream;
+import edu.rit.io.Streamable;
+
+/**
+ * Class CityTable holds the co-ordinates of all the input cities in two
+ * primitive arrays. The table is built once by addCities() and is shared
+ * by every tour, a tour only stores the indices of its cities into this
+ * table.
+ *
+ * The class implements Streamable from pj2, so the table can be sent
+ * once through tuple space to all the worker tasks.
+ *
+ * @author Satyajeet Shahane, Ajeeth Kannan
+ */
+public class CityTable implements Streamable {
+
+	// Hidden data members.
+
+	private int[] x; // x co-ordinate of each city
+	private int[] y; // y co-ordinate of each city
+
+	// default constructor
+
+	public CityTable() {
+
+	}
+
+	/**
+	 *
+	 * parameterized constructor
+	 *
+	 * @param cities cities in the order they were read from the input file
+	 */
+	public CityTable(City[] cities) {
+		x = new int[cities.length];
+		y = new int[cities.length];
+		for (int i = 0; i < cities.length; i++) {
+			x[i] = cities[i].getX();
+			y[i] = cities[i].getY();
+		}
+	}
+
+	// number of cities in the table
+	public int size() {
+		return x.length;
+	}
+
+	// getter for x of a city
+	public int getX(int city) {
+		return x[city];
+	}
+
+	// getter for y of a city
+	public int getY(int city) {
+		return y[city];
+	}
+
+	/**
+	 * Euclidean distance between two cities.
+	 *
+	 * @param city1 index of the first city
+	 * @param city2 index of the second city
+	 * @return distance between the two cities
+	 */
+	public double distance(int city1, int city2) {
+		int xSub = x[city1] - x[city2];
+		int ySub = y[city1] - y[city2];
+		return Math.sqrt((xSub * xSub) + (ySub * ySub));
+	}
+
+	/**
+	 *
+	 * returns point of a city as a string
+	 *
+	 * @param city index of the city
+	 * @return string which returns the point
+	 */
+	public String pointString(int city) {
+		return x[city] + " " + y[city];
+	}
+
+	/**
+	 * readIn() method declared in Interface edu.rit.io.Streamable
+	 *
+	 * Gets value for the hidden data members.
+	 *
+	 * @exception IOException is called to indicate that an object
+	 * could not be or should not be read.
+	 */
+	public void readIn(InStream inStream) throws IOException {
+		x = inStream.readIntArray();
+		y = inStream.readIntArray();
+	}
+
+	/**
+	 * writeOut() method declared in Interface edu.rit.io.Streamable
+	 *
+	 * hidden data members are sent through tuple.
+	 *
+	 * exception IOException is called to indicate that an object
+	 * could not be or should not be written.
+	 */
+	public void writeOut(OutStream outStream) throws IOException {
+		outStream.writeIntArray(x);
+		outStream.writeIntArray(y);
+	}
+
+}
@@ -0,0 +1,149 @@
+/**
+ * Class Convergence decides when an island can stop before its
+ * generation count runs out. It is updated once per generation with the
+ * length of the best tour, which the caller already has. Three criteria
+ * are known, each one is off when its value is 0:
+ *
+ *     stall     - the best tour has not become shorter for this many
+ *                 generations
+ *     target    - the best tour is at most this long
+ *     diversity - on average less than this fraction of the edges of the
+ *                 other tours are not in the best tour, so the tours are
+ *                 nearly the same
+ *
+ * Only the diversity criterion looks at the other tours. The edges of
+ * the best tour are marked by setBest(), then difference() compares a
+ * tour with them in one pass, so a generation costs as much as
+ * evaluating the lengths once.
+ *
+ * An island which has converged goes on counting, so a shorter tour,
+ * for example one that migrated in, clears the stall again.
+ *
+ * @author Satyajeet Shahane, Ajeeth Kannan
+ */
+public class Convergence {
+
+	private static final double EPSILON = 1e-10; // smallest change taken as an improvement
+
+	private int N; // number of cities
+	private int stall; // generations without improvement before stopping
+	private double target; // tour length good enough to stop
+	private double diversity; // smallest mean fraction of edges not in the best tour
+	private int[] next; // city after each city in the best tour
+	private int[] previous; // city before each city in the best tour
+	private double bestLength = Double.MAX_VALUE; // shortest tour seen
+	private int stalled; // generations since bestLength last changed
+	private boolean converged; // one of the criteria holds
+	private boolean targetReached; // bestLength is at most target
+
+	/**
+	 * Parameterized constructor
+	 *
+	 * @param N number of cities
+	 * @param stall generations without improvement before stopping, 0 for no limit
+	 * @param target tour length good enough to stop, 0 for none
+	 * @param diversity smallest mean fraction of edges not in the best tour, 0 for none
+	 */
+	public Convergence(int N, int stall, double target, double diversity) {
+		this.N = N;
+		this.stall = stall;
+		this.target = target;
+		this.diversity = diversity;
+		if (diversity > 0) {
+			next = new int[N];
+			previous = new int[N];
+		}
+	}
+
+	// checks if the diversity criterion is on, so setBest() and difference() are needed
+	public boolean usesDiversity() {
+		return diversity > 0;
+	}
+
+	/**
+	 * Marks the edges of the best tour of the generation.
+	 *
+	 * @param path array holding the tour
+	 * @param off offset of the tour in path
+	 */
+	public void setBest(int[] path, int off) {
+		for (int i = 0; i < N; i++) {
+			int city = path[off + i];
+			int after = path[off + (i + 1 == N ? 0 : i + 1)];
+			next[city] = after;
+			previous[after] = city;
+		}
+	}
+
+	/**
+	 * Fraction of the edges of a tour which are not in the best tour.
+	 *
+	 * @param path array holding the tour
+	 * @param off offset of the tour in path
+	 * @return 0 for the best tour, 1 for a tour with no common edge
+	 */
+	public double difference(int[] path, int off) {
+		int count = 0;
+		for (int i = 0; i < N; i++) {
+			int city = path[off + i];
+			int after = path[off + (i + 1 == N ? 0 : i + 1)];
+			if (next[city] != after && previous[city] != after) {
+				count++;
+			}
+		}
+		return count / (double) N;
+	}
+
+	/**
+	 * Updates the criteria after one generation.
+	 *
+	 * @param best length of the best tour of the generation
+	 * @param difference mean difference() of the tours of the generation
+	 * other than the best one
+	 * @return true if the island has converged
+	 */
+	public boolean update(double best, double difference) {
+		update(best);
+		if (diversity > 0 && difference < diversity) {
+			converged = true;
+		}
+		return converged;
+	}
+
+	/**
+	 * Updates the criteria after one generation, without the diversity
+	 * criterion, when it is off or the engine changes only the best
+	 * tour.
+	 *
+	 * @param best length of the best tour of the generation
+	 * @return true if the island has converged
+	 */
+	public boolean update(double best) {
+		if (best < bestLength - EPSILON) {
+			bestLength = best;
+			stalled = 0;
+		}
+		else {
+			stalled++;
+		}
+		targetReached = target > 0 && bestLength <= target;
+		converged = targetReached || (stall > 0 && stalled >= stall);
+		return converged;
+	}
+
+	// checks if one of the criteria holds
+	public boolean isConverged() {
+		return converged;
+	}
+
+	// checks if the target length was reached
+	public boolean isTargetReached() {
+		return targetReached;
+	}
+
+	// getter for bestLength
+	public double getBestLength() {
+		return bestLength;
+	}
+
+}
@@ -0,0 +1,30 @@
+import edu.rit.util.Random;
+
+/**
+ * Interface CrossoverOperator is a crossover of the genetic algorithm
+ * working on tours kept as permutations of city indices in int arrays.
+ * A tour starts at an offset in its array, so the same operator works on
+ * the path of a Tour and on a FlatPopulation buffer.
+ *
+ * An implementation keeps its own scratch arrays between calls, so an
+ * instance must be used by only one thread. GAConfig.newCrossover()
+ * makes the operator chosen for a run.
+ *
+ * @author Satyajeet Shahane, Ajeeth Kannan
+ */
+public interface CrossoverOperator {
+
+	/**
+	 * Makes a child of two parents.
+	 *
+	 * @param path1 array holding parent1
+	 * @param off1 offset of parent1
+	 * @param path2 array holding parent2
+	 * @param off2 offset of parent2
+	 * @param child array the child is written into
+	 * @param offChild offset of the child
+	 * @param random random for the choices of the operator
+	 */
+	public void crossover(int[] path1, int off1, int[] path2, int off2, int[] child, int offChild, Random random);
+
+}
@@ -0,0 +1,57 @@
+import edu.rit.util.Random;
+
+/**
+ * Class CycleCrossover implements cycle crossover (CX). The positions
+ * are split into cycles, a cycle is found by following a position to
+ * the position in parent1 of the city parent2 has there. The child takes
+ * the cities of alternate cycles from parent1 and parent2, so every city
+ * keeps the position it has in one of the parents.
+ *
+ * @author Satyajeet Shahane, Ajeeth Kannan
+ */
+public class CycleCrossover implements CrossoverOperator {
+
+	private int N; // number of cities
+	private boolean[] visited; // positions already in a cycle
+	private int[] position1; // position of each city in parent1
+
+	/**
+	 * Parameterized constructor
+	 *
+	 * @param N number of cities in a tour
+	 */
+	public CycleCrossover(int N) {
+		this.N = N;
+		visited = new boolean[N];
+		position1 = new int[N];
+	}
+
+	/**
+	 * crossover() declared in Interface CrossoverOperator
+	 */
+	public void crossover(int[] path1, int off1, int[] path2, int off2, int[] child, int offChild, Random random) {
+
+		for( int i = 0; i < N; i++ ) {
+			visited[i] = false;
+			position1[path1[off1 + i]] = i;
+		}
+
+		// the parent of the first cycle is chosen randomly
+		boolean fromParent1 = random.nextBoolean();
+
+		for( int start = 0; start < N; start++ ) {
+			if( visited[start] ) {
+				continue;
+			}
+			int i = start;
+			do {
+				visited[i] = true;
+				child[offChild + i] = fromParent1 ? path1[off1 + i] : path2[off2 + i];
+				i = position1[path2[off2 + i]];
+			} while( i != start );
+			fromParent1 = !fromParent1;
+		}
+
+	}
+
+}
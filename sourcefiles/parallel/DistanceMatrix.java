@@ -0,0 +1,64 @@
+/**
+ * Class DistanceMatrix stores the euclidean distance between every pair
+ * of cities in a flat array indexed by i*N+j. The matrix is computed once
+ * from the CityTable, after that evaluating a tour is only array loads.
+ *
+ * The matrix is never changed after it is built, so one instance is
+ * shared by all the cores of a node.
+ *
+ * @author Satyajeet Shahane, Ajeeth Kannan
+ */
+public class DistanceMatrix {
+
+	private final int N; // number of cities
+	private final double[] distance; // distance[i*N+j] between city i and city j
+	private NeighborList neighborList; // built when it is first asked for
+
+	/**
+	 * Parameterized constructor
+	 *
+	 * @param cityTable co-ordinates of the cities
+	 */
+	public DistanceMatrix(CityTable cityTable) {
+		N = cityTable.size();
+		distance = new double[N * N];
+		for (int i = 0; i < N; i++) {
+			for (int j = i + 1; j < N; j++) {
+				double d = cityTable.distance(i, j);
+				distance[i * N + j] = d;
+				distance[j * N + i] = d;
+			}
+		}
+	}
+
+	/**
+	 * distance between two cities
+	 *
+	 * @param city1 index of the first city
+	 * @param city2 index of the second city
+	 * @return euclidean distance
+	 */
+	public double distance(int city1, int city2) {
+		return distance[city1 * N + city2];
+	}
+
+	/**
+	 * Nearest neighbors of every city. The list is built on the first
+	 * call and shared by all the callers afterwards.
+	 *
+	 * @param K number of neighbors needed for each city
+	 * @return list with at least K neighbors, or N-1 if N is smaller
+	 */
+	public synchronized NeighborList getNeighborList(int K) {
+		if (neighborList == null || neighborList.size() < Math.min(K, N - 1)) {
+			neighborList = new NeighborList(this, K);
+		}
+		return neighborList;
+	}
+
+	// number of cities
+	public int size() {
+		return N;
+	}
+
+}
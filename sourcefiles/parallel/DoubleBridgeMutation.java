@@ -0,0 +1,91 @@
+import edu.rit.util.Random;
+
+/**
+ * Class DoubleBridgeMutation cuts the tour into four parts A B C D at
+ * three random positions and joins them again as A C B D. On the cycle
+ * D and A stay joined, so it changes three edges and moves B and C past
+ * each other without turning them. It is the usual kick of iterated
+ * local search.
+ *
+ * A move which swaps B and C is the same as moving one of B, C or D A
+ * to another place, which or-opt does for a part of at most three
+ * cities. Every part therefore has at least MIN_PART cities, so the
+ * local search after the kick can not simply undo it. Below 12 cities
+ * the parts are shorter and or-opt may undo the kick.
+ *
+ * @author Satyajeet Shahane, Ajeeth Kannan
+ */
+public class DoubleBridgeMutation implements MutationOperator {
+
+	private static final int MIN_PART = 4; // fewest cities in B, C and D A, one more than or-opt moves
+
+	private int N; // number of cities
+	private DistanceMatrix distanceMatrix; // distance between every pair of cities
+	private int[] buffer; // parts B and C while they are swapped
+	private int[] ends; // cities at the changed edges of the last mutation
+
+	/**
+	 * Parameterized constructor
+	 *
+	 * @param distanceMatrix distance between every pair of cities
+	 */
+	public DoubleBridgeMutation(DistanceMatrix distanceMatrix) {
+		this.distanceMatrix = distanceMatrix;
+		N = distanceMatrix.size();
+		buffer = new int[N];
+		ends = new int[6];
+	}
+
+	/**
+	 * mutate() declared in Interface MutationOperator
+	 */
+	public double mutate(int[] path, int off, Random random) {
+		if (N < 8) {
+			return 0;
+		}
+		// lengths of B, C and D A, each at least shortest, adding up to N
+		int shortest = Math.min(MIN_PART, N / 3);
+		int spare = N - 3 * shortest;
+		int x = random.nextInt(spare + 1);
+		int y = random.nextInt(spare + 1);
+		int lengthB = shortest + Math.min(x, y);
+		int lengthC = shortest + Math.abs(x - y);
+		int lengthDA = N - lengthB - lengthC;
+		// 1 <= p1 < p2 < p3 <= N-1, so neither A nor D is empty
+		int p1 = 1 + random.nextInt(lengthDA - 1);
+		int p2 = p1 + lengthB;
+		int p3 = p2 + lengthC;
+
+		int a = path[off + p1 - 1];
+		int b = path[off + p1];
+		int c = path[off + p2 - 1];
+		int d = path[off + p2];
+		int e = path[off + p3 - 1];
+		int f = path[off + p3];
+		ends[0] = a;
+		ends[1] = b;
+		ends[2] = c;
+		ends[3] = d;
+		ends[4] = e;
+		ends[5] = f;
+		double delta = distanceMatrix.distance(a, d) + distanceMatrix.distance(e, b) + distanceMatrix.distance(c, f)
+				- distanceMatrix.distance(a, b) - distanceMatrix.distance(c, d) - distanceMatrix.distance(e, f);
+
+		// C then B
+		System.arraycopy(path, off + p2, buffer, 0, lengthC);
+		System.arraycopy(path, off + p1, buffer, lengthC, lengthB);
+		System.arraycopy(buffer, 0, path, off + p1, p3 - p1);
+		return delta;
+	}
+
+	/**
+	 * Cities at the three changed edges of the last mutation, so the
+	 * local search after a kick only has to start from them.
+	 *
+	 * @return array of the six cities
+	 */
+	public int[] getEnds() {
+		return ends;
+	}
+
+}
@@ -0,0 +1,377 @@
+import edu.rit.util.Random;
+
+/**
+ * Class EdgeAssemblyCrossover implements edge assembly crossover (EAX).
+ *
+ * The edges which are only in parent1 (A) or only in parent2 (B) are
+ * split into AB-cycles, cycles whose edges come alternately from A and
+ * from B. One AB-cycle is chosen randomly as the E-set: its A edges are
+ * removed from parent1 and its B edges are added. This gives every city
+ * two edges again but may break the tour into subtours. The subtours are
+ * merged, smallest first, by the cheapest exchange of one edge of the
+ * subtour and one edge of another subtour, looking only at the nearest
+ * neighbors of the cities of the subtour.
+ *
+ * The child keeps almost all the edges of parent1 and takes a few from
+ * parent2, which is why EAX needs far fewer generations than OX.
+ *
+ * @author Satyajeet Shahane, Ajeeth Kannan
+ */
+public class EdgeAssemblyCrossover implements CrossoverOperator {
+
+	private static final int NEIGHBORS = 10; // candidates for merging subtours
+
+	private int N; // number of cities
+	private DistanceMatrix distanceMatrix; // distance between every pair of cities
+	private NeighborList neighborList; // nearest cities of each city
+
+	// the two neighbors of city c are at 2*c and 2*c+1, -1 for none
+	private int[] linkA; // edges of parent1
+	private int[] linkB; // edges of parent2
+	private int[] remainA; // edges of parent1 not in an AB-cycle yet
+	private int[] remainB; // edges of parent2 not in an AB-cycle yet
+	private int[] link; // edges of the child
+
+	private int[] walk; // cities of the alternating walk
+	private int[] atEven; // position of a city at an even position of walk, -1 for none
+	private int[] atOdd; // position of a city at an odd position of walk, -1 for none
+
+	private int[] cycleCity; // cities of all the AB-cycles one after another
+	private int[] cycleStart; // start of each AB-cycle in cycleCity
+	private boolean[] cycleFirstA; // true if the first edge of an AB-cycle is an A edge
+	private int cycles; // number of AB-cycles
+
+	private int[] subtour; // subtour of each city
+	private int[] subtourSize; // number of cities of each subtour, 0 after it is merged
+	private int[] subtourCity; // one city of each subtour
+	private int[] members; // cities of the subtour being merged
+
+	/**
+	 * Parameterized constructor
+	 *
+	 * @param distanceMatrix distance between every pair of cities
+	 */
+	public EdgeAssemblyCrossover(DistanceMatrix distanceMatrix) {
+		this.distanceMatrix = distanceMatrix;
+		N = distanceMatrix.size();
+		neighborList = distanceMatrix.getNeighborList(NEIGHBORS);
+		linkA = new int[2 * N];
+		linkB = new int[2 * N];
+		remainA = new int[2 * N];
+		remainB = new int[2 * N];
+		link = new int[2 * N];
+		walk = new int[2 * N + 2];
+		atEven = new int[N];
+		atOdd = new int[N];
+		cycleCity = new int[2 * N + 2];
+		cycleStart = new int[N + 1];
+		cycleFirstA = new boolean[N];
+		subtour = new int[N];
+		subtourSize = new int[N];
+		subtourCity = new int[N];
+		members = new int[N];
+	}
+
+	/**
+	 * crossover() declared in Interface CrossoverOperator
+	 */
+	public void crossover(int[] path1, int off1, int[] path2, int off2, int[] child, int offChild, Random random) {
+
+		makeLinks(path1, off1, linkA);
+		makeLinks(path2, off2, linkB);
+		System.arraycopy(linkA, 0, remainA, 0, 2 * N);
+		System.arraycopy(linkB, 0, remainB, 0, 2 * N);
+
+		// edges in both parents are never in an AB-cycle
+		for( int c = 0; c < N; c++ ) {
+			for( int k = 0; k < 2; k++ ) {
+				int other = linkA[2 * c + k];
+				if( other == linkB[2 * c] || other == linkB[2 * c + 1] ) {
+					remove(remainA, c, other);
+					remove(remainB, c, other);
+				}
+			}
+		}
+
+		findCycles(random);
+
+		System.arraycopy(linkA, 0, link, 0, 2 * N);
+		if( cycles > 0 ) {
+			applyCycle(random.nextInt(cycles));
+			mergeSubtours();
+		}
+
+		// walk the edges of the child from the first city of parent1
+		int previous = -1;
+		int city = path1[off1];
+		for( int i = 0; i < N; i++ ) {
+			child[offChild + i] = city;
+			int next = link[2 * city] != previous ? link[2 * city] : link[2 * city + 1];
+			previous = city;
+			city = next;
+		}
+
+	}
+
+	// neighbors of each city in a tour
+	private void makeLinks(int[] path, int off, int[] links) {
+		for( int i = 0; i < N; i++ ) {
+			int city = path[off + i];
+			links[2 * city] = path[off + (i == 0 ? N - 1 : i - 1)];
+			links[2 * city + 1] = path[off + (i == N - 1 ? 0 : i + 1)];
+		}
+	}
+
+	// removes the edge between two cities from links
+	private static void remove(int[] links, int city1, int city2) {
+		removeHalf(links, city1, city2);
+		removeHalf(links, city2, city1);
+	}
+
+	// removes city2 from the neighbors of city1
+	private static void removeHalf(int[] links, int city1, int city2) {
+		if( links[2 * city1] == city2 ) {
+			links[2 * city1] = -1;
+		}
+		else if( links[2 * city1 + 1] == city2 ) {
+			links[2 * city1 + 1] = -1;
+		}
+	}
+
+	// adds city2 to the free neighbor of city1
+	private static void addHalf(int[] links, int city1, int city2) {
+		if( links[2 * city1] == -1 ) {
+			links[2 * city1] = city2;
+		}
+		else {
+			links[2 * city1 + 1] = city2;
+		}
+	}
+
+	// replaces neighbor oldCity of city by newCity
+	private void replace(int city, int oldCity, int newCity) {
+		if( link[2 * city] == oldCity ) {
+			link[2 * city] = newCity;
+		}
+		else {
+			link[2 * city + 1] = newCity;
+		}
+	}
+
+	/**
+	 * Splits the remaining edges into AB-cycles. A walk takes an A edge
+	 * from cities at even positions and a B edge from cities at odd
+	 * positions. When it comes back to a city it visited at a position
+	 * of the same parity, the part of the walk in between is an AB-cycle;
+	 * it is stored and cut off the walk, which goes on from that city.
+	 */
+	private void findCycles(Random random) {
+		cycles = 0;
+		cycleStart[0] = 0;
+		for( int c = 0; c < N; c++ ) {
+			atEven[c] = -1;
+			atOdd[c] = -1;
+		}
+
+		for( int start = 0; start < N; start++ ) {
+			while( remainA[2 * start] != -1 || remainA[2 * start + 1] != -1 ) {
+				int length = 1;
+				walk[0] = start;
+				atEven[start] = 0;
+				while( length > 0 ) {
+					int position = length - 1;
+					int city = walk[position];
+					int[] remain = position % 2 == 0 ? remainA : remainB;
+					int next = pick(remain, city, random);
+					if( next == -1 ) {
+						// only the start city runs out of edges, the loop
+						// clears the whole walk to be safe anyway
+						for( int k = 0; k < length; k++ ) {
+							clearPosition(walk[k], k);
+						}
+						length = 0;
+						break;
+					}
+					remove(remain, city, next);
+					int[] at = length % 2 == 0 ? atEven : atOdd;
+					if( at[next] != -1 ) {
+						// back at next with the other kind of edge, store the cycle
+						int from = at[next];
+						storeCycle(from, length);
+						for( int k = from + 1; k < length; k++ ) {
+							clearPosition(walk[k], k);
+						}
+						length = from + 1;
+					}
+					else {
+						walk[length] = next;
+						at[next] = length;
+						length++;
+					}
+				}
+			}
+		}
+	}
+
+	// a random remaining neighbor of city, -1 for none
+	private static int pick(int[] remain, int city, Random random) {
+		int first = remain[2 * city];
+		int second = remain[2 * city + 1];
+		if( first == -1 ) {
+			return second;
+		}
+		if( second == -1 ) {
+			return first;
+		}
+		return random.nextBoolean() ? first : second;
+	}
+
+	// clears the position of a city in the walk
+	private void clearPosition(int city, int position) {
+		if( position % 2 == 0 ) {
+			atEven[city] = -1;
+		}
+		else {
+			atOdd[city] = -1;
+		}
+	}
+
+	// stores walk[from..to-1] as an AB-cycle
+	private void storeCycle(int from, int to) {
+		int at = cycleStart[cycles];
+		for( int k = from; k < to; k++ ) {
+			cycleCity[at++] = walk[k];
+		}
+		cycleFirstA[cycles] = from % 2 == 0;
+		cycles++;
+		cycleStart[cycles] = at;
+	}
+
+	// removes the A edges and adds the B edges of an AB-cycle to the child
+	private void applyCycle(int cycle) {
+		int from = cycleStart[cycle];
+		int length = cycleStart[cycle + 1] - from;
+		for( int k = 0; k < length; k++ ) {
+			if( (k % 2 == 0) == cycleFirstA[cycle] ) {
+				remove(link, cycleCity[from + k], cycleCity[from + (k + 1) % length]);
+			}
+		}
+		for( int k = 0; k < length; k++ ) {
+			if( (k % 2 == 0) != cycleFirstA[cycle] ) {
+				int city1 = cycleCity[from + k];
+				int city2 = cycleCity[from + (k + 1) % length];
+				addHalf(link, city1, city2);
+				addHalf(link, city2, city1);
+			}
+		}
+	}
+
+	/**
+	 * Finds the subtours of the child and merges them until one tour is
+	 * left.
+	 */
+	private void mergeSubtours() {
+
+		int subtours = 0;
+		for( int c = 0; c < N; c++ ) {
+			subtour[c] = -1;
+		}
+		for( int c = 0; c < N; c++ ) {
+			if( subtour[c] == -1 ) {
+				int size = collect(c, subtours);
+				subtourSize[subtours] = size;
+				subtourCity[subtours] = c;
+				subtours++;
+			}
+		}
+
+		for( int left = subtours; left > 1; left-- ) {
+
+			// smallest subtour
+			int smallest = -1;
+			for( int s = 0; s < subtours; s++ ) {
+				if( subtourSize[s] > 0 && (smallest == -1 || subtourSize[s] < subtourSize[smallest]) ) {
+					smallest = s;
+				}
+			}
+			int size = collect(subtourCity[smallest], smallest);
+
+			// cheapest exchange of an edge (u,u2) of the subtour and an edge (v,v2) outside
+			double best = Double.MAX_VALUE;
+			int bestU = -1, bestU2 = -1, bestV = -1, bestV2 = -1;
+			boolean cross = false;
+			for( int pass = 0; pass < 2 && bestU == -1; pass++ ) {
+				// the second pass looks at all the cities, in case no neighbor is outside
+				int candidates = pass == 0 ? neighborList.size() : N;
+				for( int m = 0; m < size; m++ ) {
+					int u = members[m];
+					for( int k = 0; k < candidates; k++ ) {
+						int v = pass == 0 ? neighborList.get(u, k) : k;
+						if( subtour[v] == smallest ) {
+							continue;
+						}
+						for( int a = 0; a < 2; a++ ) {
+							int u2 = link[2 * u + a];
+							double removed = distanceMatrix.distance(u, u2);
+							for( int b = 0; b < 2; b++ ) {
+								int v2 = link[2 * v + b];
+								double base = removed + distanceMatrix.distance(v, v2);
+								double gain1 = distanceMatrix.distance(u, v) + distanceMatrix.distance(u2, v2) - base;
+								double gain2 = distanceMatrix.distance(u, v2) + distanceMatrix.distance(u2, v) - base;
+								if( gain1 < best ) {
+									best = gain1;
+									bestU = u; bestU2 = u2; bestV = v; bestV2 = v2;
+									cross = false;
+								}
+								if( gain2 < best ) {
+									best = gain2;
+									bestU = u; bestU2 = u2; bestV = v; bestV2 = v2;
+									cross = true;
+								}
+							}
+						}
+					}
+				}
+			}
+
+			// exchange the edges
+			int target = subtour[bestV];
+			if( cross ) {
+				// (u,v2) and (u2,v)
+				replace(bestU, bestU2, bestV2);
+				replace(bestU2, bestU, bestV);
+				replace(bestV, bestV2, bestU2);
+				replace(bestV2, bestV, bestU);
+			}
+			else {
+				// (u,v) and (u2,v2)
+				replace(bestU, bestU2, bestV);
+				replace(bestU2, bestU, bestV2);
+				replace(bestV, bestV2, bestU);
+				replace(bestV2, bestV, bestU2);
+			}
+			for( int m = 0; m < size; m++ ) {
+				subtour[members[m]] = target;
+			}
+			subtourSize[target] = subtourSize[target] + size;
+			subtourSize[smallest] = 0;
+		}
+
+	}
+
+	// marks the cities of the subtour of city and stores them in members
+	private int collect(int city, int label) {
+		int size = 0;
+		int previous = -1;
+		int current = city;
+		do {
+			subtour[current] = label;
+			members[size++] = current;
+			int next = link[2 * current] != previous ? link[2 * current] : link[2 * current + 1];
+			previous = current;
+			current = next;
+		} while( current != city );
+		return size;
+	}
+
+}
@@ -0,0 +1,122 @@
+import edu.rit.util.Random;
+
+/**
+ * Class EdgeRecombinationCrossover implements edge recombination
+ * crossover (ERX). The edges of both parents are put in an edge map,
+ * at most four neighbors for each city. The child is built by going from
+ * the current city to the neighbor with the fewest neighbors left, so
+ * almost every edge of the child comes from a parent.
+ *
+ * @author Satyajeet Shahane, Ajeeth Kannan
+ */
+public class EdgeRecombinationCrossover implements CrossoverOperator {
+
+	private int N; // number of cities
+	private int[] neighbors; // neighbors of city c are neighbors[4*c .. 4*c+count[c]-1]
+	private int[] count; // number of neighbors left for each city
+	private int[] unvisited; // cities not in the child yet, unvisited[0..left-1]
+	private int[] unvisitedAt; // position of each city in unvisited
+
+	/**
+	 * Parameterized constructor
+	 *
+	 * @param N number of cities in a tour
+	 */
+	public EdgeRecombinationCrossover(int N) {
+		this.N = N;
+		neighbors = new int[N * 4];
+		count = new int[N];
+		unvisited = new int[N];
+		unvisitedAt = new int[N];
+	}
+
+	/**
+	 * crossover() declared in Interface CrossoverOperator
+	 */
+	public void crossover(int[] path1, int off1, int[] path2, int off2, int[] child, int offChild, Random random) {
+
+		for( int i = 0; i < N; i++ ) {
+			count[i] = 0;
+			unvisited[i] = i;
+			unvisitedAt[i] = i;
+		}
+		addEdges(path1, off1);
+		addEdges(path2, off2);
+		int left = N;
+
+		int city = path1[off1 + random.nextInt(N)];
+		for( int i = 0; i < N; i++ ) {
+
+			child[offChild + i] = city;
+
+			// remove city from the unvisited cities
+			int last = unvisited[--left];
+			unvisited[unvisitedAt[city]] = last;
+			unvisitedAt[last] = unvisitedAt[city];
+
+			// remove city from the edge map
+			for( int k = 0; k < count[city]; k++ ) {
+				removeNeighbor(neighbors[4 * city + k], city);
+			}
+
+			if( left == 0 ) {
+				break;
+			}
+
+			// next city is the neighbor with the fewest neighbors left
+			int nextCity = -1;
+			int ties = 0;
+			for( int k = 0; k < count[city]; k++ ) {
+				int neighbor = neighbors[4 * city + k];
+				if( nextCity == -1 || count[neighbor] < count[nextCity] ) {
+					nextCity = neighbor;
+					ties = 1;
+				}
+				else if( count[neighbor] == count[nextCity] ) {
+					ties++;
+					if( random.nextInt(ties) == 0 ) {
+						nextCity = neighbor;
+					}
+				}
+			}
+			if( nextCity == -1 ) {
+				nextCity = unvisited[random.nextInt(left)];
+			}
+			count[city] = 0;
+			city = nextCity;
+		}
+
+	}
+
+	// adds the edges of a parent to the edge map
+	private void addEdges(int[] path, int off) {
+		for( int i = 0; i < N; i++ ) {
+			int city = path[off + i];
+			addNeighbor(city, path[off + (i == 0 ? N - 1 : i - 1)]);
+			addNeighbor(city, path[off + (i == N - 1 ? 0 : i + 1)]);
+		}
+	}
+
+	// adds neighbor to the list of city if it is not there
+	private void addNeighbor(int city, int neighbor) {
+		for( int k = 0; k < count[city]; k++ ) {
+			if( neighbors[4 * city + k] == neighbor ) {
+				return;
+			}
+		}
+		neighbors[4 * city + count[city]] = neighbor;
+		count[city]++;
+	}
+
+	// removes neighbor from the list of city
+	private void removeNeighbor(int city, int neighbor) {
+		for( int k = 0; k < count[city]; k++ ) {
+			if( neighbors[4 * city + k] == neighbor ) {
+				count[city]--;
+				neighbors[4 * city + k] = neighbors[4 * city + count[city]];
+				return;
+			}
+		}
+	}
+
+}
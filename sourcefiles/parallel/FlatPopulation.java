@@ -0,0 +1,206 @@
+/**
+ * Class FlatPopulation stores a population as one int array holding all
+ * the tours one after another, tour i is genes[i*N .. i*N+N-1]. The
+ * length, fitness and hash of tour i are kept in parallel primitive
+ * arrays.
+ *
+ * All the arrays are allocated once for the given capacity. clear() only
+ * resets the size, so GeneticAlgorithm can fill one FlatPopulation with
+ * the next generation while reading the current one, and then swap the
+ * two without creating any objects.
+ *
+ * @author Satyajeet Shahane, Ajeeth Kannan
+ */
+public class FlatPopulation {
+
+	private final int N; // number of cities in a tour
+	private final int[] genes; // all the tours
+	private final double[] lengths; // euclidean distance of each tour
+	private final double[] fitness; // fitness value of each tour
+	private final long[] hashes; // hash of each tour
+	private final int[] order; // indices of the tours sorted by length
+	private final LongHashSet hashSet; // hashes of the tours added since clear()
+	private int size; // number of tours
+	private int ranked; // number of tours in order
+
+	/**
+	 * Parameterized constructor
+	 *
+	 * @param capacity maximum number of tours
+	 * @param N number of cities in a tour
+	 */
+	public FlatPopulation(int capacity, int N) {
+		this.N = N;
+		genes = new int[capacity * N];
+		lengths = new double[capacity];
+		fitness = new double[capacity];
+		hashes = new long[capacity];
+		order = new int[capacity];
+		hashSet = new LongHashSet(capacity);
+	}
+
+	/**
+	 * removes all the tours, the arrays are kept for reuse
+	 */
+	public void clear() {
+		size = 0;
+		ranked = 0;
+		hashSet.clear();
+	}
+
+	/**
+	 * Offset in getGenes() where the next tour will be written. The tour
+	 * written there is kept only when commit() is called.
+	 *
+	 * @return offset of the free slot
+	 */
+	public int nextOffset() {
+		return size * N;
+	}
+
+	/**
+	 * keeps the tour written at nextOffset() if it is not a duplicate
+	 *
+	 * @param length euclidean distance of the tour
+	 * @param hash hash of the tour
+	 * @return true if the tour was kept
+	 */
+	public boolean commit(double length, long hash) {
+		if (!hashSet.add(hash)) {
+			return false;
+		}
+		lengths[size] = length;
+		hashes[size] = hash;
+		size++;
+		return true;
+	}
+
+	/**
+	 * copies a tour into this population if it is not a duplicate
+	 *
+	 * @param path array holding the tour
+	 * @param off offset of the tour in path
+	 * @param length euclidean distance of the tour
+	 * @param hash hash of the tour
+	 * @return true if the tour was added
+	 */
+	public boolean add(int[] path, int off, double length, long hash) {
+		if (hashSet.contains(hash)) {
+			return false;
+		}
+		System.arraycopy(path, off, genes, size * N, N);
+		return commit(length, hash);
+	}
+
+	/**
+	 * checks if the tour is contained already.
+	 *
+	 * @param hash hash of the tour to be checked
+	 * @return true if the tour already exist
+	 */
+	public boolean contains(long hash) {
+		return hashSet.contains(hash);
+	}
+
+	/**
+	 * Sorts the tours by length and keeps only the best ones in the
+	 * order. The tours themselves are not moved.
+	 *
+	 * @param keep number of best tours to keep
+	 */
+	public void sort(int keep) {
+		for (int i = 0; i < size; i++) {
+			order[i] = i;
+		}
+		quickSort(0, size - 1);
+		ranked = Math.min(size, keep);
+	}
+
+	// sorts order[low..high] by length
+	private void quickSort(int low, int high) {
+		while (high - low > 16) {
+			double pivot = lengths[order[(low + high) >>> 1]];
+			int i = low;
+			int j = high;
+			while (i <= j) {
+				while (lengths[order[i]] < pivot) {
+					i++;
+				}
+				while (lengths[order[j]] > pivot) {
+					j--;
+				}
+				if (i <= j) {
+					int temp = order[i];
+					order[i] = order[j];
+					order[j] = temp;
+					i++;
+					j--;
+				}
+			}
+			// recurse into the smaller part
+			if (j - low < high - i) {
+				quickSort(low, j);
+				low = i;
+			}
+			else {
+				quickSort(i, high);
+				high = j;
+			}
+		}
+		for (int i = low + 1; i <= high; i++) {
+			int index = order[i];
+			int j = i - 1;
+			while (j >= low && lengths[order[j]] > lengths[index]) {
+				order[j + 1] = order[j];
+				j--;
+			}
+			order[j + 1] = index;
+		}
+	}
+
+	// index of the tour with the given rank, 0 is the shortest
+	public int ranked(int rank) {
+		return order[rank];
+	}
+
+	// number of tours kept by sort()
+	public int rankedSize() {
+		return ranked;
+	}
+
+	// offset of a tour in getGenes()
+	public int offset(int index) {
+		return index * N;
+	}
+
+	// getter for genes
+	public int[] getGenes() {
+		return genes;
+	}
+
+	// number of tours
+	public int size() {
+		return size;
+	}
+
+	// getter for the length of a tour
+	public double getLength(int index) {
+		return lengths[index];
+	}
+
+	// getter for the hash of a tour
+	public long getHash(int index) {
+		return hashes[index];
+	}
+
+	// getter for the fitness of a tour
+	public double getFitness(int index) {
+		return fitness[index];
+	}
+
+	// setter for the fitness of a tour
+	public void setFitness(int index, double fitnessValue) {
+		fitness[index] = fitnessValue;
+	}
+
+}
@@ -0,0 +1,495 @@
+import java.util.concurrent.ForkJoinPool;
+
+import edu.rit.util.Random;
+
+/**
+ * Class GAConfig holds the options of a run of the genetic algorithm.
+ * The options are given on the command line after the required
+ * arguments, each one as key=value, for example
+ *
+ *     java pj2 jar=myprogram.jar SmpTSPGA 30.txt 100 2 6 store=flat
+ *
+ * The job passes them unchanged to every worker task, which parses them
+ * again with parse().
+ *
+ * @author Satyajeet Shahane, Ajeeth Kannan
+ */
+public class GAConfig {
+
+	private boolean flatStore = false; // store=flat, keep the population in FlatPopulation
+	private String crossover = "ox"; // crossover=ox|pmx|cx|erx|eax
+	private String mutation = "swap"; // mutation=swap|inversion|insertion|oropt|scramble|doublebridge
+	private boolean tournament = false; // selection=tournament, otherwise roulette
+	private int tournamentSize = 2; // tournament=k, tours drawn for each parent
+	private long seed = 1; // seed=s, seed of the random streams of all the islands
+	private String engine = "generational"; // engine=generational|steady|lk
+	private String localSearch = "none"; // localSearch=none or a list of 2opt,oropt,lk
+	private String polish = "2opt,oropt"; // polish=, local search of the final best tour
+	private int neighbors = 8; // neighbors=k, candidates of each city in local search
+	private String seeding = "random"; // seeding=random|nn|greedy|hilbert|mix, tours of the first generation
+	private int stall = 0; // stall=k, stop after k generations without improvement, 0 for never
+	private double target = 0; // target=l, stop when a tour is at most l long, 0 for never
+	private boolean parallelEvaluation = false; // evaluation=parallel, evaluate the population on a fork-join pool
+	private boolean parallelOffspring = false; // offspring=parallel, make the children on a fork-join pool
+	private int islands = 0; // islands=k, islands of each node, 0 for one per core
+	private int popSize = 30; // pop=k, tours in the population of each island
+	private int timeLimit = 0; // time=ms, wall clock budget of the job, 0 for generation counts
+	private double diversity = 0; // diversity=d, stop when less than a fraction d of the edges differ from the best tour, 0 for never
+
+	// candidates of each city in Lin-Kernighan
+	private static final int LK_NEIGHBORS = 5;
+
+	// random numbers each island can draw before reaching the stream of the next one
+	private static final long STREAM_LENGTH = 1L << 40;
+
+	// random numbers each first tour can draw before reaching the stream of the next one
+	private static final long SEEDING_STREAM_LENGTH = 1L << 24;
+
+	// default constructor, all options have their default value
+	public GAConfig() {
+	}
+
+	/**
+	 * Parses the key=value options.
+	 *
+	 * @param args command line arguments
+	 * @param from index of the first option in args
+	 * @return parsed options
+	 * @exception IllegalArgumentException if an option is not known or
+	 * its value is not valid
+	 */
+	public static GAConfig parse(String[] args, int from) {
+		GAConfig config = new GAConfig();
+		for (int i = from; i < args.length; i++) {
+			int at = args[i].indexOf('=');
+			if (at <= 0) {
+				throw new IllegalArgumentException("Option " + args[i] + " should be key=value");
+			}
+			config.set(args[i].substring(0, at), args[i].substring(at + 1));
+		}
+		return config;
+	}
+
+	// sets one option
+	private void set(String key, String value) {
+		if (key.equals("store")) {
+			if (value.equals("flat")) {
+				flatStore = true;
+			}
+			else if (value.equals("object")) {
+				flatStore = false;
+			}
+			else {
+				badValue(key, value);
+			}
+		}
+		else if (key.equals("crossover")) {
+			if (!value.equals("ox") && !value.equals("pmx") && !value.equals("cx") && !value.equals("erx")
+					&& !value.equals("eax")) {
+				badValue(key, value);
+			}
+			crossover = value;
+		}
+		else if (key.equals("mutation")) {
+			if (!value.equals("swap") && !value.equals("inversion") && !value.equals("insertion")
+					&& !value.equals("oropt") && !value.equals("scramble") && !value.equals("doublebridge")) {
+				badValue(key, value);
+			}
+			mutation = value;
+		}
+		else if (key.equals("selection")) {
+			if (value.equals("tournament")) {
+				tournament = true;
+			}
+			else if (value.equals("roulette")) {
+				tournament = false;
+			}
+			else {
+				badValue(key, value);
+			}
+		}
+		else if (key.equals("tournament")) {
+			tournamentSize = intValue(key, value);
+			if (tournamentSize < 1) {
+				badValue(key, value);
+			}
+		}
+		else if (key.equals("engine")) {
+			if (!value.equals("generational") && !value.equals("steady") && !value.equals("lk")) {
+				badValue(key, value);
+			}
+			engine = value;
+		}
+		else if (key.equals("localSearch")) {
+			checkLocalSearch(key, value);
+			localSearch = value;
+		}
+		else if (key.equals("polish")) {
+			checkLocalSearch(key, value);
+			polish = value;
+		}
+		else if (key.equals("neighbors")) {
+			neighbors = intValue(key, value);
+			if (neighbors < 1) {
+				badValue(key, value);
+			}
+		}
+		else if (key.equals("seeding")) {
+			if (!value.equals("random") && !value.equals("nn") && !value.equals("greedy")
+					&& !value.equals("hilbert") && !value.equals("mix")) {
+				badValue(key, value);
+			}
+			seeding = value;
+		}
+		else if (key.equals("stall")) {
+			stall = intValue(key, value);
+			if (stall < 0) {
+				badValue(key, value);
+			}
+		}
+		else if (key.equals("evaluation")) {
+			if (value.equals("parallel")) {
+				parallelEvaluation = true;
+			}
+			else if (value.equals("serial")) {
+				parallelEvaluation = false;
+			}
+			else {
+				badValue(key, value);
+			}
+		}
+		else if (key.equals("offspring")) {
+			if (value.equals("parallel")) {
+				parallelOffspring = true;
+			}
+			else if (value.equals("serial")) {
+				parallelOffspring = false;
+			}
+			else {
+				badValue(key, value);
+			}
+		}
+		else if (key.equals("islands")) {
+			islands = intValue(key, value);
+			if (islands < 0) {
+				badValue(key, value);
+			}
+		}
+		else if (key.equals("pop")) {
+			popSize = intValue(key, value);
+			if (popSize < 2) {
+				badValue(key, value);
+			}
+		}
+		else if (key.equals("time")) {
+			timeLimit = intValue(key, value);
+			if (timeLimit < 0) {
+				badValue(key, value);
+			}
+		}
+		else if (key.equals("target")) {
+			target = doubleValue(key, value);
+		}
+		else if (key.equals("diversity")) {
+			diversity = doubleValue(key, value);
+		}
+		else if (key.equals("seed")) {
+			try {
+				seed = Long.parseLong(value);
+			}
+			catch (NumberFormatException e) {
+				throw new IllegalArgumentException("Option " + key + " should be an integer, not " + value);
+			}
+		}
+		else {
+			throw new IllegalArgumentException("Unknown option " + key);
+		}
+	}
+
+	// checks a value of localSearch or polish
+	private static void checkLocalSearch(String key, String value) {
+		if (value.equals("none")) {
+			return;
+		}
+		String[] names = value.split(",", -1);
+		for (int i = 0; i < names.length; i++) {
+			if (!names[i].equals("2opt") && !names[i].equals("oropt") && !names[i].equals("lk")) {
+				badValue(key, value);
+			}
+		}
+	}
+
+	// value of an integer option
+	private static int intValue(String key, String value) {
+		try {
+			return Integer.parseInt(value);
+		}
+		catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Option " + key + " should be an integer, not " + value);
+		}
+	}
+
+	// value of a real option, which can not be negative
+	private static double doubleValue(String key, String value) {
+		double d;
+		try {
+			d = Double.parseDouble(value);
+		}
+		catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Option " + key + " should be a number, not " + value);
+		}
+		if (!(d >= 0) || Double.isInfinite(d)) {
+			badValue(key, value);
+		}
+		return d;
+	}
+
+	// throws error if the value of an option is not valid
+	private static void badValue(String key, String value) {
+		throw new IllegalArgumentException("Option " + key + " can not be " + value);
+	}
+
+	/**
+	 * Makes the crossover chosen for this run. Every GeneticAlgorithm
+	 * needs its own instance.
+	 *
+	 * @param distanceMatrix distance between every pair of cities
+	 * @return new crossover operator
+	 */
+	public CrossoverOperator newCrossover(DistanceMatrix distanceMatrix) {
+		int N = distanceMatrix.size();
+		if (crossover.equals("pmx")) {
+			return new PartiallyMappedCrossover(N);
+		}
+		else if (crossover.equals("cx")) {
+			return new CycleCrossover(N);
+		}
+		else if (crossover.equals("erx")) {
+			return new EdgeRecombinationCrossover(N);
+		}
+		else if (crossover.equals("eax")) {
+			return new EdgeAssemblyCrossover(distanceMatrix);
+		}
+		return new OrderedCrossover(N);
+	}
+
+	/**
+	 * Makes the mutation chosen for this run. Every GeneticAlgorithm
+	 * needs its own instance.
+	 *
+	 * @param distanceMatrix distance between every pair of cities
+	 * @return new mutation operator
+	 */
+	public MutationOperator newMutation(DistanceMatrix distanceMatrix) {
+		if (mutation.equals("inversion")) {
+			return new InversionMutation(distanceMatrix);
+		}
+		else if (mutation.equals("insertion")) {
+			return new SegmentMutation(distanceMatrix, 1, 1);
+		}
+		else if (mutation.equals("oropt")) {
+			return new SegmentMutation(distanceMatrix, 1, 3);
+		}
+		else if (mutation.equals("scramble")) {
+			return new ScrambleMutation(distanceMatrix);
+		}
+		else if (mutation.equals("doublebridge")) {
+			return new DoubleBridgeMutation(distanceMatrix);
+		}
+		return new SwapMutation(distanceMatrix);
+	}
+
+	/**
+	 * Makes the local search chosen for this run. Every GeneticAlgorithm
+	 * needs its own instance.
+	 *
+	 * @param distanceMatrix distance between every pair of cities
+	 * @return new local search, null for localSearch=none, except
+	 * with engine=lk, which always uses lk,oropt if none is given
+	 */
+	public LocalSearch newLocalSearch(DistanceMatrix distanceMatrix) {
+		if (isLinKernighan() && localSearch.equals("none")) {
+			return newLocalSearch("lk,oropt", distanceMatrix);
+		}
+		return newLocalSearch(localSearch, distanceMatrix);
+	}
+
+	/**
+	 * Makes the local search that polishes the best tour of a node
+	 * before it is sent to the reduce task.
+	 *
+	 * @param distanceMatrix distance between every pair of cities
+	 * @return new local search, null for polish=none
+	 */
+	public LocalSearch newPolish(DistanceMatrix distanceMatrix) {
+		return newLocalSearch(polish, distanceMatrix);
+	}
+
+	// local search for a checked value of localSearch or polish
+	private LocalSearch newLocalSearch(String value, DistanceMatrix distanceMatrix) {
+		if (value.equals("none")) {
+			return null;
+		}
+		String[] names = value.split(",");
+		LocalSearch[] localSearches = new LocalSearch[names.length];
+		for (int i = 0; i < names.length; i++) {
+			if (names[i].equals("2opt")) {
+				localSearches[i] = new TwoOpt(distanceMatrix, neighbors);
+			}
+			else if (names[i].equals("oropt")) {
+				localSearches[i] = new OrOpt(distanceMatrix, neighbors);
+			}
+			else {
+				localSearches[i] = new LinKernighan(distanceMatrix, LK_NEIGHBORS);
+			}
+		}
+		if (localSearches.length == 1) {
+			return localSearches[0];
+		}
+		return new LocalSearchChain(localSearches);
+	}
+
+	/**
+	 * Makes the random stream of an island. All the islands of all the
+	 * nodes start from the same seed, island i skips the first
+	 * i*STREAM_LENGTH numbers, so the streams never overlap. The stream
+	 * is made once and used by the island for the whole run.
+	 *
+	 * @param island index of the island over all the nodes
+	 * @return new random stream
+	 */
+	public Random newRandom(int island) {
+		Random random = new Random(seed);
+		random.skip(island * STREAM_LENGTH);
+		return random;
+	}
+
+	/**
+	 * Makes the builder of the tours of the first generation. Every
+	 * thread needs its own instance.
+	 *
+	 * @param cityTable co-ordinates of the cities
+	 * @param distanceMatrix distance between every pair of cities
+	 * @return new tour builder
+	 */
+	public TourSeeding newSeeding(CityTable cityTable, DistanceMatrix distanceMatrix) {
+		return new TourSeeding(seeding, cityTable, distanceMatrix);
+	}
+
+	/**
+	 * Makes the random stream of one tour of the first generation. These
+	 * streams start from ~seed, apart from the streams of the islands,
+	 * tour i skips the first i*SEEDING_STREAM_LENGTH numbers.
+	 *
+	 * @param tour index of the tour over all the islands of all the nodes
+	 * @return new random stream
+	 */
+	public Random newSeedingRandom(int tour) {
+		Random random = new Random(~seed);
+		random.skip(tour * SEEDING_STREAM_LENGTH);
+		return random;
+	}
+
+	/**
+	 * Makes the evaluator of evaluation=parallel. It runs on the common
+	 * fork-join pool, so all the islands of a node share its threads.
+	 * Only the generational engine with the object store evaluates
+	 * its children in the pool, the other engines evaluate each child
+	 * as it is made.
+	 *
+	 * @param distanceMatrix distance between every pair of cities
+	 * @return new evaluator, null for evaluation=serial
+	 */
+	public ParallelFitness newParallelFitness(DistanceMatrix distanceMatrix) {
+		if (!parallelEvaluation) {
+			return null;
+		}
+		return new ParallelFitness(distanceMatrix, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Makes the breeder of offspring=parallel. It runs on the common
+	 * fork-join pool, so all the islands of a node share its threads
+	 * and steal work from each other. Only the generational engine with
+	 * the object store makes its children in the pool.
+	 *
+	 * @param distanceMatrix distance between every pair of cities
+	 * @return new breeder, null for offspring=serial
+	 */
+	public ParallelOffspring newParallelOffspring(DistanceMatrix distanceMatrix) {
+		if (!parallelOffspring) {
+			return null;
+		}
+		return new ParallelOffspring(this, distanceMatrix, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Makes the termination criteria of an island. Every
+	 * GeneticAlgorithm needs its own instance.
+	 *
+	 * @param N number of cities
+	 * @return new criteria, null if stall, target and diversity are all 0
+	 */
+	public Convergence newConvergence(int N) {
+		if (!hasConvergence()) {
+			return null;
+		}
+		return new Convergence(N, stall, target, diversity);
+	}
+
+	// checks if one of stall, target and diversity is given
+	public boolean hasConvergence() {
+		return stall > 0 || target > 0 || diversity > 0;
+	}
+
+	// getter for islands, 0 for one island per core
+	public int getIslands() {
+		return islands;
+	}
+
+	// checks if time= is given, the epochs then end at deadlines
+	public boolean hasTimeLimit() {
+		return timeLimit > 0;
+	}
+
+	// getter for popSize
+	public int getPopSize() {
+		return popSize;
+	}
+
+	// getter for timeLimit, in milliseconds
+	public int getTimeLimit() {
+		return timeLimit;
+	}
+
+	// checks if seeding=random, the first tours are then shuffled by Population
+	public boolean isRandomSeeding() {
+		return seeding.equals("random");
+	}
+
+	// getter for flatStore
+	public boolean isFlatStore() {
+		return flatStore;
+	}
+
+	// checks if engine=steady
+	public boolean isSteadyState() {
+		return engine.equals("steady");
+	}
+
+	// checks if engine=lk
+	public boolean isLinKernighan() {
+		return engine.equals("lk");
+	}
+
+	// getter for tournament
+	public boolean isTournament() {
+		return tournament;
+	}
+
+	// getter for tournamentSize
+	public int getTournamentSize() {
+		return tournamentSize;
+	}
+
+}
@@ -4,46 +4,90 @@ import edu.rit.util.Random;
 
 public class GeneticAlgorithm {
 
+	private static final int MIGRANTS = 6; // best tours sent to the neighbor island
+	private static final int MAILBOX_CAPACITY = 64; // migrants waiting for an island
+
 	private ArrayList<Tour> tours; // list of temporary tours
-	private ArrayList<Tour> perIterTours; // list of temporary tours
-	private ArrayList<Tour> processMigrate; // list of tours after migration
+	private Mailbox<Tour> mailbox; // tours migrating into this island
+	private Tour[] arrivals; // newest tours taken out of the mailbox
+	private volatile int nodeMigrants; // tours another node sends in one step
 	
 	private Population population; // population in a generation
 	private Population perIterPopulation; // temporary population in a generation
+	private DistanceMatrix distanceMatrix; // distance between every pair of cities
 	private int popSize; // population size in a generation
 	private int N; // number of cites
-	private int crossPoint1; // crossover point2 for ordered crossover
-	private int crossPoint2; // crossover point1 for ordered crossover
 	private int mutationPercent; // total percent in mutation
 	private int crossoverPercent; // total percent in crossover
-	private int seed,threadSize; 
+	private int[] childBuffer; // child of crossover, reused for every child
+	private CrossoverOperator crossoverOperator; // crossover chosen for this run
+	private MutationOperator mutationOperator; // mutation chosen for this run
+	private LocalSearch localSearch; // local search on the children, null if none
+	private Random random; // random stream of this island, used for every choice
+	private Convergence convergence; // termination criteria of this island, null if none
+	private long deadline = Long.MAX_VALUE; // wall clock time at which run() returns
+	private ParallelFitness parallelFitness; // evaluates the tours on a pool, null if evaluation=serial
+	private ParallelOffspring offspring; // makes the children on a pool, null if offspring=serial
+	
+	private GAConfig config; // options of this run
+	private AliasSampler sampler; // parents drawn by their sampling value
+	private double[] weights; // sampling value of each tour, by rank
+	private int totalSampling; // sum of the sampling values
+	private LongHashSet usedPairs; // parent pairs already crossed over
+	
+	// used only when the population is kept in FlatPopulation
+	private FlatPopulation current; // population of this generation
+	private FlatPopulation next; // population of the next generation
+	
+	// used only by the Lin-Kernighan engine
+	private DoubleBridgeMutation kick; // random restart of the local search
+	private int[] bestBuffer; // best tour found by the engine
 	
-	private long randomCount;
+	// used only by the steady state engine
+	private SteadyPopulation steady; // population replaced in place
+	private int[] steadyOrder; // indices of the tours of steady, shortest first
 	
 	/**
 	 * Parameterized constructor
 	 * 
-	 * @param population initial random population
+	 * @param population initial random population, improved by the local
+	 * search of this run if there is one
 	 * @param size size of the population in a generation
 	 * @param N number of cities in a tour
-	 * @param seed seed for generating random tours
-	 * @param threadSize total size of the cores running in all the nodes
+	 * @param random random stream of this island, from GAConfig.newRandom()
+	 * @param distanceMatrix distance between every pair of cities
+	 * @param config options of this run
 	 */
-	public GeneticAlgorithm(Population population, int size, int N, int seed, int threadSize) {
+	public GeneticAlgorithm(Population population, int size, int N, Random random, DistanceMatrix distanceMatrix, GAConfig config) {
 		this.population = population;
+		this.config = config;
+		this.distanceMatrix = distanceMatrix;
 		this.popSize = size;
 		this.N = N;
-		this.seed = seed;
-		this.threadSize = threadSize;
-		this.randomCount = -2147483648 + seed;
-		perIterTours = new ArrayList<Tour>();
-		processMigrate = new ArrayList<Tour>();
+		this.random = random;
+		mailbox = new Mailbox<Tour>(MAILBOX_CAPACITY);
 		perIterPopulation = new Population();
+		childBuffer = new int[N];
+		crossoverOperator = config.newCrossover(distanceMatrix);
+		mutationOperator = config.newMutation(distanceMatrix);
+		localSearch = config.newLocalSearch(distanceMatrix);
+		convergence = config.newConvergence(N);
+		parallelFitness = config.newParallelFitness(distanceMatrix);
+		offspring = config.newParallelOffspring(distanceMatrix);
+		// the Lin-Kernighan engine only improves the best tour
+		if( localSearch != null && !config.isLinKernighan() ) {
+			population.improve(localSearch, random.nextInt(Integer.MAX_VALUE), distanceMatrix);
+		}
+		sampler = new AliasSampler(size);
+		weights = new double[size];
+		usedPairs = new LongHashSet(size * 2);
 	}
 
 	/**
 	 * 
-	 * run() calls all the operations for genetic algorithm. 
+	 * run() calls all the operations for genetic algorithm. It stops
+	 * before iterGA generations if the island converges, see
+	 * Convergence, or its deadline passes.
 	 * 
 	 * @param iterGA number of iterations to run genetic algorithm
 	 */
@@ -51,11 +95,34 @@ public class GeneticAlgorithm {
 	
 		addProcessMigrateTours();
 		
+		if( config.isSteadyState() ) {
+			runSteady(interGA);
+			return;
+		}
+		
+		if( config.isLinKernighan() ) {
+			runLinKernighan(interGA);
+			return;
+		}
+		
+		if( config.isFlatStore() ) {
+			runFlat(interGA);
+			return;
+		}
+		
 		for( int j = 0; j < interGA; j++ ) {
 			fitnessFunction();
-			selection();
-			crossover();
+			if( config.isTournament() ) {
+				tournamentCrossover();
+			}
+			else {
+				selection();
+				crossover();
+			}
 			mutation();
+			if( offspring != null ) {
+				addOffspring();
+			}
 			
 			// copying from perIterPopulation to population after each generation
 			for( int i = 0; i < popSize; i++ ) {
@@ -73,6 +140,10 @@ public class GeneticAlgorithm {
 				population.addTour(perIterPopulation.tours.get(i));
 			}
 			
+			if( converged() || timeUp() ) {
+				break;
+			}
+			
 		}
 		
 		
@@ -91,17 +162,21 @@ public class GeneticAlgorithm {
 
 		double maxDistance = 0;
 
-		// Maximum euclidean distance of all the tours in population 
-		for (int i = 0; i < populationSize; i++) {
+		// Maximum euclidean distance of all the tours in population.
+		// The distance of every tour is already cached in the tour.
+		if (parallelFitness != null) {
+			maxDistance = parallelFitness.evaluate(tours);
+		}
+		else {
+			for (int i = 0; i < populationSize; i++) {
 
-			tours.get(i).calculateDistance();
-			
-			tempDistance = tours.get(i).getEucDistance();
+				tempDistance = tours.get(i).getEucDistance();
 
-			if (maxDistance < tempDistance) {
-				maxDistance = tempDistance;
-			}
+				if (maxDistance < tempDistance) {
+					maxDistance = tempDistance;
+				}
 
+			}
 		}
 
 		// calculating the fitness value according to the Maximum euclidean distance
@@ -129,17 +204,22 @@ public class GeneticAlgorithm {
 		int populationSize = tours.size();
 		double maxDistance = 0;
 
-		// Maximum euclidean distance of all the tours in perIterPopulation 
-		for (int i = 0; i < populationSize; i++) {
-			
-			tours.get(i).calculateDistance();
+		// Maximum euclidean distance of all the tours in perIterPopulation.
+		// Mutated tours already have their distance cached, so do children
+		// unless they are left for the parallel evaluation.
+		if (parallelFitness != null) {
+			maxDistance = parallelFitness.evaluate(tours);
+		}
+		else {
+			for (int i = 0; i < populationSize; i++) {
 
-			tempDistance = tours.get(i).getEucDistance();
+				tempDistance = tours.get(i).getEucDistance();
 
-			if (maxDistance < tempDistance) {
-				maxDistance = tempDistance;
-			}
+				if (maxDistance < tempDistance) {
+					maxDistance = tempDistance;
+				}
 
+			}
 		}
 
 		// calculating the fitness value according to the Maximum euclidean distance
@@ -157,7 +237,8 @@ public class GeneticAlgorithm {
 	/**
 	 * selection() does the selection operation of genetic algorithm.
 	 * The method finds probability value and sampling value for 
-	 * all the tours in population.
+	 * all the tours in population, and builds the sampler that draws
+	 * the parents in crossover() by their sampling value.
 	 */
 	public void selection() {
 
@@ -168,6 +249,10 @@ public class GeneticAlgorithm {
 
 		int populationSize = tours.size();
 		double totalFitnessVal = 0;
+		if (weights.length < populationSize) {
+			weights = new double[populationSize];
+		}
+		totalSampling = 0;
 
 		for (int i = 0; i < populationSize; i++) {
 			totalFitnessVal = totalFitnessVal + tours.get(i).getFitnessValue();
@@ -180,7 +265,10 @@ public class GeneticAlgorithm {
 			samplingValue = ((int) (probability * populationSize)) + 1;
 			tempTourObj.setProbabilityValue(probability);
 			tempTourObj.setSamplingValue(samplingValue);
+			weights[i] = samplingValue;
+			totalSampling = totalSampling + samplingValue;
 		}
+		sampler.build(weights, populationSize);
 
 	}
 	
@@ -188,234 +276,672 @@ public class GeneticAlgorithm {
 	 * crossover() does the crossover operation of genetic algorithm. Population of
 	 * this generation would be copied to perIterPopulation. Initially best 20
 	 * percent of the population will be directly selected for next generation. 
-	 * Two parents will be randomly selected in perIterPopulation and undergo
-	 * ordered crossover. 
+	 * Two parents will be drawn by their sampling value and undergo the
+	 * crossover chosen for this run, ordered crossover by default. 
 	 */
 	public void crossover() {
 
 		tours = population.getTours();
 		int populationSize = tours.size();
-		Tour tempTourObj,child;
-		int randomVal1,randomVal2;
-		Random random;
-		ArrayList<String> checkList = new ArrayList<String>();
+		long pair;
 		crossoverPercent = (int) (populationSize * 0.80);
 
-		perIterTours.clear();
 		perIterPopulation.clearTours();
-
-		// copy 20 percent population to perItertours
-		for (int i = 0; i < populationSize; i++) {
-			tempTourObj = tours.get(i);
-			for (int j = 0; j < tempTourObj.getSamplingValue(); j++) {
-				perIterTours.add(new Tour(tempTourObj));
-			}
+		usedPairs.clear();
+		if( offspring != null ) {
+			offspring.clear();
 		}
 
-		// copy all the population to perIterPopulation
+		// copy 20 percent population to perIterPopulation
 		for (int i = 0; i < populationSize - crossoverPercent; i++) {
 			perIterPopulation.addTour(tours.get(i));
 		}
 
 		// run crossover
-		random = new Random(randomCount);
-
-		for (int i = 0; i < perIterTours.size() / 2; i++) {
-			randomVal1 = random.nextInt(perIterTours.size());
-			randomVal2 = random.nextInt(perIterTours.size());
-			while (perIterTours.get(randomVal1).getTourString().equals(perIterTours.get(randomVal2).getTourString())
-					|| checkList.contains(randomVal1 + " " + randomVal2)) {
-				randomVal1 = random.nextInt(tours.size());
-				randomVal2 = random.nextInt(tours.size());
-				if( randomCount == 2147483647 ) {
-					randomCount = -2147483648 + seed;
-				}
-				randomVal1 = random.nextInt(perIterTours.size());
-				randomVal2 = random.nextInt(perIterTours.size());
+		for (int i = 0; i < totalSampling / 2; i++) {
+			pair = drawPair(populationSize);
+			if( pair < 0 ) {
+				break;
 			}
-			checkList.add(randomVal1 + " " + randomVal2);
-			child = oderedCrossover(perIterTours.get(randomVal1), perIterTours.get(randomVal2));
-			if( !perIterPopulation.contains(child) ) {
-				perIterPopulation.addTour(child);
+			if( offspring != null ) {
+				offspring.addCrossover((int) (pair / populationSize), (int) (pair % populationSize));
+				continue;
 			}
-			randomCount = randomCount + threadSize;
-			
+			crossoverChild(tours.get((int) (pair / populationSize)), tours.get((int) (pair % populationSize)));
+			addChild(childLength());
 		}
 		
 		
 	}
 
 	/**
-	 * The method follows oderedCrossover algorithm. Gets two parents  
-	 * to perform oderedCrossover from crossover() to get a new offspring.
+	 * Draws two different parents by their sampling value which were
+	 * not crossed over yet in this generation. A draw is O(1), after
+	 * populationSize failed draws the method gives up.
+	 * 
+	 * @param populationSize number of tours in the sampler
+	 * @return rank1 * populationSize + rank2, or -1 if no pair was found
+	 */
+	private long drawPair(int populationSize) {
+		for( int retry = 0; retry < populationSize; retry++ ) {
+			int rank1 = sampler.next(random);
+			int rank2 = sampler.next(random);
+			long pair = (long) rank1 * populationSize + rank2;
+			if( rank1 != rank2 && usedPairs.add(pair) ) {
+				return pair;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * tournamentCrossover() does the crossover operation with tournament
+	 * selection. Best 20 percent of the population are directly selected
+	 * for next generation as in crossover(), the other 80 percent are
+	 * children of parents picked by tournament(). The parents are taken
+	 * straight from the sorted population, no tour is copied.
+	 */
+	public void tournamentCrossover() {
+
+		tours = population.getTours();
+		int populationSize = tours.size();
+		Tour parent1,parent2;
+		crossoverPercent = (int) (populationSize * 0.80);
+
+		perIterPopulation.clearTours();
+		if (offspring != null) {
+			offspring.clear();
+		}
+
+		for (int i = 0; i < populationSize - crossoverPercent; i++) {
+			perIterPopulation.addTour(tours.get(i));
+		}
+
+		for (int i = 0; i < crossoverPercent; i++) {
+			int rank1 = tournament(populationSize);
+			int rank2 = tournament(populationSize);
+			for (int retry = 0; tours.get(rank1).getHash() == tours.get(rank2).getHash() && retry < populationSize; retry++) {
+				rank2 = tournament(populationSize);
+			}
+			if (offspring != null) {
+				offspring.addCrossover(rank1, rank2);
+				continue;
+			}
+			parent1 = tours.get(rank1);
+			parent2 = tours.get(rank2);
+			crossoverChild(parent1, parent2);
+			addChild(childLength());
+		}
+
+	}
+
+	/**
+	 * Draws tournament=k ranks at random and returns the best of them.
+	 * The population is sorted best first, so the best is the smallest
+	 * rank and no fitness has to be compared.
+	 * 
+	 * @param populationSize number of tours to draw from
+	 * @return rank of the winner
+	 */
+	private int tournament(int populationSize) {
+		int best = random.nextInt(populationSize);
+		for( int i = 1; i < config.getTournamentSize(); i++ ) {
+			best = Math.min(best, random.nextInt(populationSize));
+		}
+		return best;
+	}
+
+	/**
+	 * The method calls the CrossoverOperator of this run on two parents  
+	 * from crossover() to get a new offspring. The offspring is written
+	 * into childBuffer, crossover() makes a Tour of it only if it is not
+	 * already in perIterPopulation.
 	 * 
 	 * @param parent1 parent1 to crossover
 	 * @param parent2 parent2 to crossover
-	 * @return new child
 	 */
-	private Tour oderedCrossover(Tour parent1, Tour parent2) {
-		int startPoint,endPoint;
-		boolean isThere = false;
-		City city[] = new City[N];
-		Tour child = new Tour();
-		ArrayList<City> individualList1 = parent1.getIndividualList();
-		ArrayList<City> individualList2 = parent2.getIndividualList();
-		int j,pos;
-		Random random = new Random(randomCount);
-		
-		crossPoint1 = random.nextInt(individualList1.size());
-		crossPoint2 = random.nextInt(individualList2.size());
-		
-		while( crossPoint1 >= crossPoint2 )
-		{
-			crossPoint1 = random.nextInt(individualList1.size());
-			crossPoint2 = random.nextInt(individualList2.size());
+	private void crossoverChild(Tour parent1, Tour parent2) {
+		crossoverOperator.crossover(parent1.getPath(), 0, parent2.getPath(), 0, childBuffer, 0, random);
+	}
+
+	// length of the child in childBuffer, NaN if it is left for the parallel evaluation
+	private double childLength() {
+		return parallelFitness != null ? Double.NaN : length(childBuffer, 0);
+	}
+
+	/**
+	 * Adds the tour in childBuffer to perIterPopulation, after the local
+	 * search of this run. A Tour is made only if it is not a duplicate.
+	 * 
+	 * @param length euclidean distance of the tour in childBuffer, NaN
+	 * if it is not evaluated yet
+	 */
+	private void addChild(double length) {
+		length = length + improve(childBuffer, 0);
+		long hash = Tour.hash(childBuffer, 0, N);
+		if( !perIterPopulation.contains(hash) ) {
+			perIterPopulation.addTour(new Tour(childBuffer.clone(), length, hash));
 		}
-				
-		for( int i = crossPoint1; i < crossPoint2; i++)
+	}
+	
+	// local search of this run on a child, returns the change in length
+	private double improve(int[] path, int off) {
+		return localSearch == null ? 0 : localSearch.improve(path, off);
+	}
+
+	/**
+	 * mutation() does the mutation operation of genetic algorithm.
+	 * The tours are selected randomly and changed by the mutation
+	 * operator of this run. All the choices come from the random
+	 * stream of this island, so they are different in every call.
+	 */
+	public void mutation() {
+		
+		tours = population.getTours();
+		int populationSize = tours.size();
+		Tour parent;
+		
+		mutationPercent = (int) (populationSize * 0.10);
+		
+		for( int i = 0; i<mutationPercent; i++ )
 		{
-			city[i] = new City(individualList1.get(i).getX(),individualList1.get(i).getY());
+			if( offspring != null ) {
+				offspring.addMutation(random.nextInt(populationSize));
+				continue;
+			}
+			parent = tours.get(random.nextInt(populationSize));
+			System.arraycopy(parent.getPath(), 0, childBuffer, 0, N);
+			addChild(parent.getEucDistance() + mutationOperator.mutate(childBuffer, 0, random));
 		}
 		
-		for( int l = 0; l < 2 ; l++ ) {
+	}
+	
+	/**
+	 * With offspring=parallel crossover() and mutation() only draw the
+	 * parents. The children are made here on the pool and added to
+	 * perIterPopulation in the order they were drawn, leaving out
+	 * duplicates as addChild() does.
+	 */
+	private void addOffspring() {
+		offspring.breed(population.getTours(), random.nextLong());
+		for( int i = 0; i < offspring.size(); i++ ) {
+			long hash = offspring.getHash(i);
+			if( !perIterPopulation.contains(hash) ) {
+				perIterPopulation.addTour(new Tour(offspring.getPath(i), offspring.getLength(i), hash));
+			}
+		}
+	}
+	
+	/**
+	 * runFlat() runs the same operations as run() on two FlatPopulation
+	 * buffers. The next generation is built in one buffer while the
+	 * current one is read, then the two are swapped. The buffers are
+	 * allocated on the first call, after that a generation does not
+	 * create any objects.
+	 * 
+	 * @param iterGA number of iterations to run genetic algorithm
+	 */
+	private void runFlat(int iterGA) {
+		
+		if( current == null ) {
+			int capacity = popSize * 3;
+			current = new FlatPopulation(capacity, N);
+			next = new FlatPopulation(capacity, N);
+		}
+		
+		// load the population
+		tours = population.getTours();
+		current.clear();
+		for( int i = 0; i < tours.size(); i++ ) {
+			Tour tour = tours.get(i);
+			current.add(tour.getPath(), 0, tour.getEucDistance(), tour.getHash());
+		}
+		current.sort(popSize);
+		
+		for( int j = 0; j < iterGA; j++ ) {
+			flatFitness(current);
+			if( !config.isTournament() ) {
+				flatSelection();
+			}
+			flatCrossover();
+			flatMutation();
 			
-			if( l == 0 ) {
-				startPoint = crossPoint2;
-				endPoint = parent1.getTourSize();
+			// fill up the next generation with the best tours of this generation
+			for( int r = 0; r < current.rankedSize() && next.size() < popSize; r++ ) {
+				int index = current.ranked(r);
+				next.add(current.getGenes(), current.offset(index), current.getLength(index), current.getHash(index));
 			}
-			else {
-				startPoint = 0;
-				endPoint = crossPoint1;
+			next.sort(popSize);
+			
+			FlatPopulation temp = current;
+			current = next;
+			next = temp;
+			
+			if( (convergence != null && flatConverged()) || timeUp() ) {
+				break;
 			}
-		 
+		}
 		
-			for( int i = startPoint; i < endPoint; i++ )
-			{
-				j = crossPoint2;
-				do
-				{
-					isThere = false;
-					for( int k = 0; k < city.length; k++ )
-					{
-						if( city[k] == null  ) {
-						}
-						else {
-							if(city[k].pointString().equals(individualList2.get(j).pointString())) {
-								isThere = true;
-							}
-						}
-					}
-					pos = j;
-					j++;
-					if( j == parent2.getTourSize() ) {
-						j = 0;
-					}	 
-				}while(isThere == true);
-				city[i] = individualList2.get(pos);
-			}
+		// store the population back into the tours, sorted by fitness
+		flatFitness(current);
+		for( int r = 0; r < current.rankedSize(); r++ ) {
+			int index = current.ranked(r);
+			Tour tour = tours.get(r);
+			tour.setPath(current.getGenes(), current.offset(index), current.getLength(index), current.getHash(index));
+			tour.setFitnessValue(current.getFitness(index));
 		}
+		population.setTours(tours);
 		
-		for( int i = 0; i < city.length; i++ )
-		{
-			child.addCity(city[i]);
+	}
+	
+	/**
+	 * runSteady() is the steady state engine. Instead of building a new
+	 * generation, one child at a time is made from two parents picked by
+	 * tournament and, one time in ten, mutated. The child replaces the
+	 * worst tour in place if it is shorter and not a duplicate. Only the
+	 * child is evaluated and the population is never sorted. One
+	 * iteration makes popSize children, as many as a generation of run().
+	 * 
+	 * @param iterGA number of iterations to run genetic algorithm
+	 */
+	private void runSteady(int iterGA) {
+		
+		if( steady == null ) {
+			steady = new SteadyPopulation(popSize, N);
+			steadyOrder = new int[popSize];
 		}
 		
-		child.calculateDistance();
+		// load the population
+		tours = population.getTours();
+		steady.clear();
+		for( int i = 0; i < tours.size(); i++ ) {
+			Tour tour = tours.get(i);
+			steady.add(tour.getPath(), 0, tour.getEucDistance(), tour.getHash());
+		}
+		int populationSize = steady.size();
+		if( populationSize < 2 ) {
+			return;
+		}
+		int[] genes = steady.getGenes();
 		
-		randomCount = randomCount + threadSize;
-		if( randomCount == 2147483647 ) {
-			randomCount = -2147483648 + seed;
+		for( int j = 0; j < iterGA; j++ ) {
+			for( int i = 0; i < popSize; i++ ) {
+				int parent1 = steadyTournament(populationSize);
+				int parent2 = steadyTournament(populationSize);
+				for( int retry = 0; parent1 == parent2 && retry < populationSize; retry++ ) {
+					parent2 = steadyTournament(populationSize);
+				}
+				crossoverOperator.crossover(genes, steady.offset(parent1), genes, steady.offset(parent2),
+						childBuffer, 0, random);
+				double length = length(childBuffer, 0);
+				if( random.nextInt(10) == 0 ) {
+					length = length + mutationOperator.mutate(childBuffer, 0, random);
+				}
+				length = length + improve(childBuffer, 0);
+				steady.replaceWorst(childBuffer, 0, length, Tour.hash(childBuffer, 0, N));
+			}
+			
+			if( (convergence != null && steadyConverged()) || timeUp() ) {
+				break;
+			}
 		}
 		
-		return child;
+		// store the population back into the tours, sorted by fitness
+		steady.sort(steadyOrder);
+		double maxDistance = steady.getLength(steady.worst());
+		for( int r = 0; r < populationSize; r++ ) {
+			int index = steadyOrder[r];
+			Tour tour = tours.get(r);
+			tour.setPath(genes, steady.offset(index), steady.getLength(index), steady.getHash(index));
+			tour.setFitnessValue(maxDistance - steady.getLength(index));
+		}
+		population.setTours(tours);
 		
 	}
-
+	
 	/**
-	 * mutation() does the mutation operation of genetic algorithm.
-	 * The cross points for mutation is selected randomly. Position 
-	 * of two cites in a tour will be swapped to mutate. Seeds are 
-	 * incremented all the mutation. So that cross points are not 
-	 * same while calling mutation next time.
+	 * runLinKernighan() is the engine=lk solver, an iterated local
+	 * search instead of the genetic algorithm. The best tour of the
+	 * population is improved with the local search of this run
+	 * (lk,oropt unless localSearch is given). Then in every iteration a
+	 * copy of it gets a double bridge kick and is improved again, and
+	 * it replaces the best tour if it is shorter. The best tour is put
+	 * back into the population, so migration works as with the other
+	 * engines.
+	 * 
+	 * @param iterGA number of kicks
 	 */
-	public void mutation() {
+	private void runLinKernighan(int iterGA) {
+		
+		if( kick == null ) {
+			kick = new DoubleBridgeMutation(distanceMatrix);
+			bestBuffer = new int[N];
+		}
 		
 		tours = population.getTours();
-		int populationSize = tours.size();
-		int tourSize = tours.get(0).getTourSize();
-		Random random1 = new Random(randomCount); 
-		Random random2 = new Random(randomCount); 
-		int tour,cPoint1,cPoint2;
-		Tour mutateTour;
+		int bestIndex = 0;
+		for( int i = 1; i < tours.size(); i++ ) {
+			if( tours.get(i).getEucDistance() < tours.get(bestIndex).getEucDistance() ) {
+				bestIndex = i;
+			}
+		}
+		Tour best = tours.get(bestIndex);
+		System.arraycopy(best.getPath(), 0, bestBuffer, 0, N);
+		double bestLength = best.getEucDistance() + improve(bestBuffer, 0);
 		
-		mutationPercent = (int) (populationSize * 0.10);
+		for( int j = 0; j < iterGA; j++ ) {
+			System.arraycopy(bestBuffer, 0, childBuffer, 0, N);
+			double length = bestLength + kick.mutate(childBuffer, 0, random);
+			length = length + localSearch.improve(childBuffer, 0, kick.getEnds(), kick.getEnds().length);
+			if( length < bestLength - 1e-10 ) {
+				int[] temp = bestBuffer;
+				bestBuffer = childBuffer;
+				childBuffer = temp;
+				bestLength = length;
+			}
+			if( (convergence != null && convergence.update(bestLength)) || timeUp() ) {
+				break;
+			}
+		}
 		
-		for( int i = 0; i<mutationPercent; i++ )
-		{
-			tour = random1.nextInt(populationSize);
-			cPoint1 = random2.nextInt(tourSize);
-			cPoint2 = random2.nextInt(tourSize);
-			mutateTour = new Tour(tours.get(tour));
-			mutateTour = mutateTour.swap(cPoint1, cPoint2);
-			if( !perIterPopulation.contains(mutateTour) )
-			{
-				perIterPopulation.addTour(mutateTour);
+		long hash = Tour.hash(bestBuffer, 0, N);
+		if( hash != best.getHash() && !population.contains(hash) ) {
+			population.setTour(bestIndex, new Tour(bestBuffer.clone(), bestLength, hash));
+		}
+		fitnessFunction();
+		
+	}
+	
+	/**
+	 * tournament() for the steady state engine. The tours of steady are
+	 * not sorted, so their lengths are compared.
+	 * 
+	 * @param populationSize number of tours to draw from
+	 * @return index of the winner
+	 */
+	private int steadyTournament(int populationSize) {
+		int best = random.nextInt(populationSize);
+		for( int i = 1; i < config.getTournamentSize(); i++ ) {
+			int index = random.nextInt(populationSize);
+			if( steady.getLength(index) < steady.getLength(best) ) {
+				best = index;
 			}
 		}
+		return best;
+	}
+	
+	/**
+	 * fitness value of the tours kept in a FlatPopulation, the same as
+	 * fitnessFunction()
+	 * 
+	 * @param flatPopulation population to be evaluated
+	 */
+	private void flatFitness(FlatPopulation flatPopulation) {
+		double maxDistance = 0;
+		for( int r = 0; r < flatPopulation.rankedSize(); r++ ) {
+			maxDistance = Math.max(maxDistance, flatPopulation.getLength(flatPopulation.ranked(r)));
+		}
+		for( int r = 0; r < flatPopulation.rankedSize(); r++ ) {
+			int index = flatPopulation.ranked(r);
+			flatPopulation.setFitness(index, maxDistance - flatPopulation.getLength(index));
+		}
+	}
+	
+	/**
+	 * sampling value of the tours in current, the same as selection()
+	 */
+	private void flatSelection() {
+		int populationSize = current.rankedSize();
+		double totalFitnessVal = 0;
+		if( weights.length < populationSize ) {
+			weights = new double[populationSize];
+		}
+		totalSampling = 0;
+		for( int r = 0; r < populationSize; r++ ) {
+			totalFitnessVal = totalFitnessVal + current.getFitness(current.ranked(r));
+		}
+		for( int r = 0; r < populationSize; r++ ) {
+			double probability = current.getFitness(current.ranked(r)) / totalFitnessVal;
+			int samplingValue = ((int) (probability * populationSize)) + 1;
+			weights[r] = samplingValue;
+			totalSampling = totalSampling + samplingValue;
+		}
+		sampler.build(weights, populationSize);
+	}
+	
+	/**
+	 * crossover on current, the same as crossover(), or as
+	 * tournamentCrossover() with selection=tournament. Children are
+	 * written straight into the free slot of next.
+	 */
+	private void flatCrossover() {
 		
-		randomCount = randomCount + threadSize;
-		if( randomCount == 2147483647 ) {
-			randomCount = -2147483648 + seed;
+		int populationSize = current.rankedSize();
+		crossoverPercent = (int) (populationSize * 0.80);
+		
+		next.clear();
+		usedPairs.clear();
+		
+		// best 20 percent go to the next generation
+		for( int r = 0; r < populationSize - crossoverPercent; r++ ) {
+			int index = current.ranked(r);
+			next.add(current.getGenes(), current.offset(index), current.getLength(index), current.getHash(index));
 		}
 		
+		if( config.isTournament() ) {
+			for( int i = 0; i < crossoverPercent; i++ ) {
+				int parent1 = current.ranked(tournament(populationSize));
+				int parent2 = current.ranked(tournament(populationSize));
+				for( int retry = 0; parent1 == parent2 && retry < populationSize; retry++ ) {
+					parent2 = current.ranked(tournament(populationSize));
+				}
+				flatChild(parent1, parent2);
+			}
+		}
+		else {
+			for( int i = 0; i < totalSampling / 2; i++ ) {
+				long pair = drawPair(populationSize);
+				if( pair < 0 ) {
+					break;
+				}
+				flatChild(current.ranked((int) (pair / populationSize)), current.ranked((int) (pair % populationSize)));
+			}
+		}
+		
+	}
+	
+	// crossover of two tours of current into the free slot of next
+	private void flatChild(int parent1, int parent2) {
+		int[] genes = current.getGenes();
+		int childOff = next.nextOffset();
+		crossoverOperator.crossover(genes, current.offset(parent1), genes, current.offset(parent2),
+				next.getGenes(), childOff, random);
+		double length = length(next.getGenes(), childOff) + improve(next.getGenes(), childOff);
+		next.commit(length, Tour.hash(next.getGenes(), childOff, N));
 	}
 	
 	/**
-	 * addProcessMigrateTours() adds the migrated tours to this population
-	 * before starting the first iteration.
+	 * mutation on current, the same as mutation(). The mutated copy is
+	 * written straight into the free slot of next.
+	 */
+	private void flatMutation() {
+		
+		int populationSize = current.rankedSize();
+		mutationPercent = (int) (populationSize * 0.10);
+		int[] childGenes = next.getGenes();
+		
+		for( int i = 0; i < mutationPercent; i++ ) {
+			int index = current.ranked(random.nextInt(populationSize));
+			int childOff = next.nextOffset();
+			System.arraycopy(current.getGenes(), current.offset(index), childGenes, childOff, N);
+			double length = current.getLength(index) + mutationOperator.mutate(childGenes, childOff, random);
+			length = length + improve(childGenes, childOff);
+			next.commit(length, Tour.hash(childGenes, childOff, N));
+		}
+		
+	}
+	
+	// euclidean distance of the tour at path[off..off+N-1]
+	private double length(int[] path, int off) {
+		double distance = distanceMatrix.distance(path[off + N - 1], path[off]);
+		for( int i = 1; i < N; i++ ) {
+			distance = distance + distanceMatrix.distance(path[off + i - 1], path[off + i]);
+		}
+		return distance;
+	}
+	
+	/**
+	 * updates the termination criteria with the tours of population,
+	 * which is sorted with the best tour first. The diversity is the
+	 * mean difference from the best tour over the other tours, the
+	 * other engines average it the same way.
+	 * 
+	 * @return true if this island has converged
+	 */
+	private boolean converged() {
+		if( convergence == null ) {
+			return false;
+		}
+		Tour best = population.tours.get(0);
+		if( !convergence.usesDiversity() ) {
+			return convergence.update(best.getEucDistance());
+		}
+		convergence.setBest(best.getPath(), 0);
+		double sum = 0;
+		for( int i = 1; i < population.tours.size(); i++ ) {
+			sum = sum + convergence.difference(population.tours.get(i).getPath(), 0);
+		}
+		return convergence.update(best.getEucDistance(), sum / Math.max(1, population.tours.size() - 1));
+	}
+	
+	// converged() for the flat store, the tours of current are sorted
+	private boolean flatConverged() {
+		int best = current.ranked(0);
+		if( !convergence.usesDiversity() ) {
+			return convergence.update(current.getLength(best));
+		}
+		convergence.setBest(current.getGenes(), current.offset(best));
+		double sum = 0;
+		for( int r = 1; r < current.rankedSize(); r++ ) {
+			sum = sum + convergence.difference(current.getGenes(), current.offset(current.ranked(r)));
+		}
+		return convergence.update(current.getLength(best), sum / Math.max(1, current.rankedSize() - 1));
+	}
+	
+	// converged() for the steady state engine
+	private boolean steadyConverged() {
+		int best = steady.best();
+		if( !convergence.usesDiversity() ) {
+			return convergence.update(steady.getLength(best));
+		}
+		convergence.setBest(steady.getGenes(), steady.offset(best));
+		double sum = 0;
+		for( int i = 0; i < steady.size(); i++ ) {
+			if( i != best ) {
+				sum = sum + convergence.difference(steady.getGenes(), steady.offset(i));
+			}
+		}
+		return convergence.update(steady.getLength(best), sum / Math.max(1, steady.size() - 1));
+	}
+	
+	// checks if the deadline has passed, without reading the clock if there is none
+	private boolean timeUp() {
+		return deadline != Long.MAX_VALUE && System.currentTimeMillis() >= deadline;
+	}
+	
+	/**
+	 * run() returns after the generation in which the deadline passes,
+	 * even if it has not run iterGA generations.
+	 * 
+	 * @param deadline wall clock time in milliseconds, Long.MAX_VALUE for none
+	 */
+	public void setDeadline(long deadline) {
+		this.deadline = deadline;
+	}
+	
+	// checks if this island has converged in its last run()
+	public boolean isConverged() {
+		return convergence != null && convergence.isConverged();
+	}
+	
+	// checks if this island has found a tour as short as the target
+	public boolean isTargetReached() {
+		return convergence != null && convergence.isTargetReached();
+	}
+	
+	/**
+	 * addProcessMigrateTours() takes the migrated tours out of the
+	 * mailbox of this island before starting the first iteration. Only
+	 * the newest MIGRANTS tours of the neighbor and the tours of one
+	 * step of the other node are used, so an island which has not run
+	 * for a few epochs does not take many old copies of the same tours.
+	 * Each migrant replaces the longest tour of the population if it is
+	 * shorter and not in the population yet, so the best tour is never
+	 * replaced by a longer one.
 	 */
 	private void addProcessMigrateTours() {
-		int addAt = population.tours.size()-1;
-		for( int i = 0; i < processMigrate.size(); i++ ) {
-			if( !population.contains(processMigrate.get(i)) ) {
-				population.tours.set(addAt, processMigrate.get(i));
-				addAt -- ;
+		int limit = MIGRANTS + nodeMigrants;
+		if( arrivals == null || arrivals.length != limit ) {
+			arrivals = new Tour[limit];
+		}
+		int count = 0;
+		Tour tour;
+		while( ( tour = mailbox.poll() ) != null ) {
+			arrivals[count % limit] = tour;
+			count++;
+		}
+		
+		// newest migrant first
+		for( int k = 1; k <= Math.min(count, limit); k++ ) {
+			int slot = (count - k) % limit;
+			tour = arrivals[slot];
+			arrivals[slot] = null;
+			if( Double.isNaN(tour.getEucDistance()) ) {
+				tour.calculateDistance(distanceMatrix);
+			}
+			if( population.tours.isEmpty() || population.contains(tour) ) {
+				continue;
+			}
+			int worst = 0;
+			for( int i = 1; i < population.tours.size(); i++ ) {
+				if( population.tours.get(i).getEucDistance() > population.tours.get(worst).getEucDistance() ) {
+					worst = i;
+				}
+			}
+			if( tour.getEucDistance() < population.tours.get(worst).getEucDistance() ) {
+				population.setTour(worst, tour);
 			}
 		}
-		processMigrate.clear();
 	}
 	
 	/**
 	 * 
-	 * Adds intranode migrated tours to this population
-	 * @param geneticAlgorithm geneticAlgorithm population which has migrated results
+	 * Sends copies of the best tours of this island to the mailbox of
+	 * another island. It does not wait for the other island, which
+	 * takes them at the start of its next run(). A full mailbox loses
+	 * its oldest tours.
+	 * 
+	 * @param geneticAlgorithm island receiving the tours
 	 */
 	public void processMigrate(GeneticAlgorithm geneticAlgorithm) {
-		for( int i = 0; i < 6; i++ ) {
+		for( int i = 0; i < Math.min(MIGRANTS, population.tours.size()); i++ ) {
 			Tour tempTour = new Tour(this.population.tours.get(i));
-			geneticAlgorithm.processMigrate.add(tempTour);
+			geneticAlgorithm.mailbox.put(tempTour);
 		}
 	}
 	
 	/**
-	 * The best tours after a certain number of iterations will
-	 * be stored in this population as a migration from other 
-	 * population.
+	 * The best tours of another node will be stored in this population
+	 * at the start of its next run(). Copies are sent to the mailbox,
+	 * so the caller can be any thread and keeps its list.
 	 * 
-	 * @param nodeMigrationReceive 
+	 * @param nodeMigrationReceive tours received from the other node
 	 */
 	public void storeNodeMigrate(ArrayList<Tour> nodeMigrationReceive) {
-		int addAt = population.tours.size()-1;
+		nodeMigrants = nodeMigrationReceive.size();
 		for( int i = 0; i < nodeMigrationReceive.size(); i++ ) {
-			if( !population.contains(nodeMigrationReceive.get(i)) ) {
-				Tour tour = new Tour(nodeMigrationReceive.get(i));
-				population.tours.set(addAt, tour);
-				addAt -- ;
-			}
+			mailbox.put(new Tour(nodeMigrationReceive.get(i)));
 		}
-		fitnessFunction();
-		population = population.populationSort();
-		
 	}
 	
 	// getter for population
@@ -0,0 +1,123 @@
+/**
+ * Class IndexedTour is the working view of the local searches on a tour
+ * stored in an int array. Besides the tour it keeps the position of
+ * every city, so the cities next to a city are found in O(1).
+ *
+ * Moves are made as 2-opt moves on cities, not on positions. A 2-opt
+ * move reverses the shorter side of the tour, which may turn the whole
+ * tour around. Since the moves only name the edges they change, a
+ * sequence of moves gives the right tour in either direction.
+ *
+ * @author Satyajeet Shahane, Ajeeth Kannan
+ */
+public class IndexedTour {
+
+	private final int N; // number of cities
+	private final int[] position; // position of each city in the tour
+	private int[] path; // array holding the tour
+	private int off; // offset of the tour
+
+	/**
+	 * Parameterized constructor
+	 *
+	 * @param N number of cities
+	 */
+	public IndexedTour(int N) {
+		this.N = N;
+		position = new int[N];
+	}
+
+	/**
+	 * Starts working on a tour. The tour is changed in place.
+	 *
+	 * @param path array holding the tour
+	 * @param off offset of the tour
+	 */
+	public void load(int[] path, int off) {
+		this.path = path;
+		this.off = off;
+		for (int i = 0; i < N; i++) {
+			position[path[off + i]] = i;
+		}
+	}
+
+	// city after the given city in the tour
+	public int next(int city) {
+		int i = position[city] + 1;
+		return path[off + (i == N ? 0 : i)];
+	}
+
+	// city before the given city in the tour
+	public int previous(int city) {
+		int i = position[city];
+		return path[off + (i == 0 ? N - 1 : i - 1)];
+	}
+
+	/**
+	 * checks if city b is on the way from city a forward to city c
+	 *
+	 * @return true if a, b and c come in this order
+	 */
+	public boolean between(int a, int b, int c) {
+		int i = position[a];
+		int j = position[b] - i;
+		int k = position[c] - i;
+		if (j < 0) {
+			j = j + N;
+		}
+		if (k < 0) {
+			k = k + N;
+		}
+		return j <= k;
+	}
+
+	/**
+	 * 2-opt move removing the edges (x1,x2) and (y1,y2) and adding
+	 * (x1,y1) and (x2,y2). x2 must follow x1 in the same direction as y2
+	 * follows y1.
+	 */
+	public void move(int x1, int x2, int y1, int y2) {
+		if (next(x1) == x2) {
+			reverse(position[x2], position[y1]);
+		}
+		else {
+			reverse(position[x1], position[y2]);
+		}
+	}
+
+	/**
+	 * Reverses the cities from position i forward to position j, going
+	 * round the end of the tour if j is before i. The shorter of the
+	 * segment and the rest of the tour is reversed, both give the same
+	 * tour.
+	 */
+	private void reverse(int i, int j) {
+		int length = j - i;
+		if (length < 0) {
+			length = length + N;
+		}
+		length++;
+		if (2 * length > N) {
+			int from = j + 1 == N ? 0 : j + 1;
+			j = i == 0 ? N - 1 : i - 1;
+			i = from;
+			length = N - length;
+		}
+		for (int s = length / 2; s > 0; s--) {
+			int cityI = path[off + i];
+			int cityJ = path[off + j];
+			path[off + i] = cityJ;
+			position[cityJ] = i;
+			path[off + j] = cityI;
+			position[cityI] = j;
+			i = i + 1 == N ? 0 : i + 1;
+			j = j == 0 ? N - 1 : j - 1;
+		}
+	}
+
+	// number of cities
+	public int size() {
+		return N;
+	}
+
+}
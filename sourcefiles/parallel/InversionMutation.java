@@ -0,0 +1,41 @@
+import edu.rit.util.Random;
+
+/**
+ * Class InversionMutation reverses the cities between two random
+ * positions, which is a random 2-opt move. Only the two edges at the
+ * ends of the segment change.
+ *
+ * @author Satyajeet Shahane, Ajeeth Kannan
+ */
+public class InversionMutation implements MutationOperator {
+
+	private int N; // number of cities
+	private DistanceMatrix distanceMatrix; // distance between every pair of cities
+
+	/**
+	 * Parameterized constructor
+	 *
+	 * @param distanceMatrix distance between every pair of cities
+	 */
+	public InversionMutation(DistanceMatrix distanceMatrix) {
+		this.distanceMatrix = distanceMatrix;
+		N = distanceMatrix.size();
+	}
+
+	/**
+	 * mutate() declared in Interface MutationOperator
+	 */
+	public double mutate(int[] path, int off, Random random) {
+		int i = random.nextInt(N);
+		int j = random.nextInt(N);
+		if( i > j ) {
+			int temp = i;
+			i = j;
+			j = temp;
+		}
+		double delta = Tour.reverseDelta(path, off, N, i, j, distanceMatrix);
+		Tour.reverse(path, off, i, j);
+		return delta;
+	}
+
+}
@@ -0,0 +1,209 @@
+/**
+ * Class LinKernighan improves a tour with variable depth moves in the
+ * style of Lin and Kernighan. Starting from an edge (t1,t2) the move is
+ * built step by step: the edge (t2,t3) to a candidate t3 is added, the
+ * edge (t3,t4) is removed and the tour is closed with (t4,t1). Each
+ * step is one 2-opt move of IndexedTour, and t4 becomes the t2 of the
+ * next step.
+ *
+ * The open gain G (removed minus added edges, without the closing edge)
+ * must stay positive, so the search stops after a few steps if nothing
+ * gains. At each step the candidate with the largest d(t3,t4) - d(t2,t3)
+ * is taken. Only the first step tries all the candidates of t2. When
+ * the sequence ends, the steps after the shortest closed tour are
+ * rolled back. An edge added in a sequence is not removed again in it.
+ * Don't-look bits are kept in a CityQueue as in TwoOpt.
+ *
+ * @author Satyajeet Shahane, Ajeeth Kannan
+ */
+public class LinKernighan implements LocalSearch {
+
+	private static final double EPSILON = 1e-10; // smallest gain taken as a gain
+	private static final int MAX_DEPTH = 50; // most steps in one move
+
+	private int N; // number of cities
+	private int K; // candidates tried for t3
+	private DistanceMatrix distanceMatrix; // distance between every pair of cities
+	private NeighborList neighborList; // nearest neighbors of every city
+	private IndexedTour tour; // tour being improved
+	private CityQueue queue; // cities with their don't-look bit off
+	private int[] stepT2; // t2 of each step of the current move
+	private int[] stepT3; // t3 of each step of the current move
+	private int[] stepT4; // t4 of each step of the current move
+
+	/**
+	 * Parameterized constructor
+	 *
+	 * @param distanceMatrix distance between every pair of cities
+	 * @param K number of candidates tried for t3
+	 */
+	public LinKernighan(DistanceMatrix distanceMatrix, int K) {
+		this.distanceMatrix = distanceMatrix;
+		N = distanceMatrix.size();
+		neighborList = distanceMatrix.getNeighborList(K);
+		this.K = Math.min(K, neighborList.size());
+		tour = new IndexedTour(N);
+		queue = new CityQueue(N);
+		stepT2 = new int[MAX_DEPTH];
+		stepT3 = new int[MAX_DEPTH];
+		stepT4 = new int[MAX_DEPTH];
+	}
+
+	/**
+	 * improve() declared in Interface LocalSearch
+	 */
+	public double improve(int[] path, int off) {
+		if (N < 8) {
+			return 0;
+		}
+		tour.load(path, off);
+		queue.pushAll(path, off);
+		return search();
+	}
+
+	/**
+	 * improve() declared in Interface LocalSearch
+	 */
+	public double improve(int[] path, int off, int[] cities, int count) {
+		if (N < 8) {
+			return 0;
+		}
+		tour.load(path, off);
+		for (int i = 0; i < count; i++) {
+			queue.push(cities[i]);
+		}
+		return search();
+	}
+
+	// looks at the cities in the queue until it is empty
+	private double search() {
+		double delta = 0;
+		while (!queue.isEmpty()) {
+			delta = delta + improveCity(queue.pop());
+		}
+		return delta;
+	}
+
+	// tries the moves starting from both edges of t1, makes the first one that gains
+	private double improveCity(int t1) {
+		for (int direction = 0; direction < 2; direction++) {
+			int t2 = direction == 0 ? tour.next(t1) : tour.previous(t1);
+			double gain = distanceMatrix.distance(t1, t2);
+			for (int k = 0; k < K; k++) {
+				int t3 = neighborList.get(t2, k);
+				if (distanceMatrix.distance(t2, t3) >= gain - EPSILON) {
+					break;
+				}
+				int t4 = follower(t1, t2, t3);
+				if (t4 < 0) {
+					continue;
+				}
+				double delta = makeMove(t1, t2, t3, t4, gain);
+				if (delta < 0) {
+					return delta;
+				}
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Makes the steps of one move from its first step and keeps the
+	 * steps up to the shortest closed tour.
+	 *
+	 * @param gain d(t1,t2), the open gain before the first step
+	 * @return change in length, 0 if all the steps were rolled back
+	 */
+	private double makeMove(int t1, int t2, int t3, int t4, double gain) {
+		int depth = 0;
+		int bestDepth = 0;
+		double bestDelta = 0;
+
+		while (true) {
+			// remove (t1,t2) and (t3,t4), add (t2,t3) and (t1,t4)
+			tour.move(t2, t1, t3, t4);
+			stepT2[depth] = t2;
+			stepT3[depth] = t3;
+			stepT4[depth] = t4;
+			depth++;
+			gain = gain - distanceMatrix.distance(t2, t3) + distanceMatrix.distance(t3, t4);
+			double closed = distanceMatrix.distance(t1, t4) - gain;
+			if (closed < bestDelta - EPSILON) {
+				bestDelta = closed;
+				bestDepth = depth;
+			}
+			if (depth == MAX_DEPTH) {
+				break;
+			}
+
+			// best next step from the new t2
+			t2 = t4;
+			t3 = -1;
+			t4 = -1;
+			double best = Double.NEGATIVE_INFINITY;
+			for (int k = 0; k < K; k++) {
+				int c = neighborList.get(t2, k);
+				double d23 = distanceMatrix.distance(t2, c);
+				if (d23 >= gain - EPSILON) {
+					break;
+				}
+				int d = follower(t1, t2, c);
+				if (d < 0 || added(c, d, depth)) {
+					continue;
+				}
+				double value = distanceMatrix.distance(c, d) - d23;
+				if (value > best) {
+					best = value;
+					t3 = c;
+					t4 = d;
+				}
+			}
+			if (t3 < 0) {
+				break;
+			}
+		}
+
+		// roll back the steps after the best closed tour
+		for (int i = depth - 1; i >= bestDepth; i--) {
+			tour.move(stepT2[i], stepT3[i], t1, stepT4[i]);
+		}
+		if (bestDepth == 0) {
+			return 0;
+		}
+		queue.push(t1);
+		for (int i = 0; i < bestDepth; i++) {
+			queue.push(stepT2[i]);
+			queue.push(stepT3[i]);
+			queue.push(stepT4[i]);
+		}
+		return bestDelta;
+	}
+
+	/**
+	 * The city t4 next to t3 that makes (t1,t2,t3,t4) a valid step. t4
+	 * follows t3 in the same direction as t1 follows t2.
+	 *
+	 * @return t4, or -1 if t3 can not be used
+	 */
+	private int follower(int t1, int t2, int t3) {
+		if (t3 == t1 || t3 == tour.next(t2) || t3 == tour.previous(t2)) {
+			return -1;
+		}
+		int t4 = tour.next(t2) == t1 ? tour.next(t3) : tour.previous(t3);
+		if (t4 == t1 || t4 == t2) {
+			return -1;
+		}
+		return t4;
+	}
+
+	// checks if the edge (a,b) was added by one of the first steps
+	private boolean added(int a, int b, int steps) {
+		for (int i = 0; i < steps; i++) {
+			if ((stepT2[i] == a && stepT3[i] == b) || (stepT2[i] == b && stepT3[i] == a)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
@@ -0,0 +1,37 @@
+/**
+ * Interface LocalSearch improves a tour kept as a permutation of city
+ * indices in an int array. The tour is changed in place and the change
+ * in its length is returned, so the tour does not have to be measured
+ * again.
+ *
+ * GAConfig.newLocalSearch() makes the local search chosen for a run.
+ * An instance keeps its scratch arrays between calls, so it must not be
+ * shared between threads.
+ *
+ * @author Satyajeet Shahane, Ajeeth Kannan
+ */
+public interface LocalSearch {
+
+	/**
+	 * Improves a tour until no move of this local search shortens it.
+	 *
+	 * @param path array holding the tour
+	 * @param off offset of the tour
+	 * @return new length minus old length, zero or less
+	 */
+	public double improve(int[] path, int off);
+
+	/**
+	 * Improves a tour which was a local optimum before the edges at a
+	 * few cities were changed, for example by a kick. The search starts
+	 * only from these cities and spreads from the cities it changes.
+	 *
+	 * @param path array holding the tour
+	 * @param off offset of the tour
+	 * @param cities cities at the changed edges
+	 * @param count number of cities in the array
+	 * @return new length minus old length, zero or less
+	 */
+	public double improve(int[] path, int off, int[] cities, int count);
+
+}
@@ -0,0 +1,65 @@
+/**
+ * Class LocalSearchChain runs several local searches one after another,
+ * for example 2-opt and then or-opt, and starts again from the first
+ * one as long as one of them still shortens the tour. The tour is then
+ * a local optimum of all of them.
+ *
+ * @author Satyajeet Shahane, Ajeeth Kannan
+ */
+public class LocalSearchChain implements LocalSearch {
+
+	private static final double EPSILON = 1e-10; // smallest gain taken as a gain
+
+	private LocalSearch[] localSearches; // local searches in the order they run
+
+	/**
+	 * Parameterized constructor
+	 *
+	 * @param localSearches local searches in the order they run
+	 */
+	public LocalSearchChain(LocalSearch[] localSearches) {
+		this.localSearches = localSearches;
+	}
+
+	/**
+	 * improve() declared in Interface LocalSearch
+	 */
+	public double improve(int[] path, int off) {
+		double delta = 0;
+		boolean improved = true;
+		while (improved) {
+			improved = false;
+			for (int i = 0; i < localSearches.length; i++) {
+				double change = localSearches[i].improve(path, off);
+				delta = delta + change;
+				// the first one has just run to its local optimum, so
+				// only a change by a later one makes another round useful
+				if (change < -EPSILON && i > 0) {
+					improved = true;
+				}
+			}
+		}
+		return delta;
+	}
+
+	/**
+	 * improve() declared in Interface LocalSearch
+	 */
+	public double improve(int[] path, int off, int[] cities, int count) {
+		double delta = 0;
+		boolean improved = false;
+		for (int i = 0; i < localSearches.length; i++) {
+			double change = localSearches[i].improve(path, off, cities, count);
+			delta = delta + change;
+			if (change < -EPSILON && i > 0) {
+				improved = true;
+			}
+		}
+		// the cities changed by a later one are not known here
+		if (improved) {
+			delta = delta + improve(path, off);
+		}
+		return delta;
+	}
+
+}
@@ -0,0 +1,167 @@
+import java.util.Arrays;
+
+/**
+ * Class LongHashSet is a set of primitive long values. It uses open
+ * addressing with linear probing, so adding, removing and looking up a
+ * value does not create any objects.
+ *
+ * Population keeps the hash of each of its tours in this set to find
+ * duplicate tours without comparing the tours.
+ *
+ * @author Satyajeet Shahane, Ajeeth Kannan
+ */
+public class LongHashSet {
+
+	private long[] table; // slots, 0 marks an empty slot
+	private boolean hasZero; // 0 can not be kept in the table
+	private int size; // number of values in the set
+	private int mask; // table.length - 1
+
+	// default constructor
+	public LongHashSet() {
+		this(16);
+	}
+
+	/**
+	 * Parameterized constructor
+	 *
+	 * @param expected number of values expected in the set
+	 */
+	public LongHashSet(int expected) {
+		int capacity = 16;
+		while (capacity < expected * 2) {
+			capacity = capacity * 2;
+		}
+		table = new long[capacity];
+		mask = capacity - 1;
+	}
+
+	/**
+	 * adds a value to the set
+	 *
+	 * @param value value to be added
+	 * @return true if the value was not in the set
+	 */
+	public boolean add(long value) {
+		if (value == 0) {
+			if (hasZero) {
+				return false;
+			}
+			hasZero = true;
+			size++;
+			return true;
+		}
+		int i = slot(value);
+		while (table[i] != 0) {
+			if (table[i] == value) {
+				return false;
+			}
+			i = (i + 1) & mask;
+		}
+		table[i] = value;
+		size++;
+		if (size * 2 > table.length) {
+			grow();
+		}
+		return true;
+	}
+
+	/**
+	 * checks if the value is in the set
+	 *
+	 * @param value value to be checked
+	 * @return true if the value is in the set
+	 */
+	public boolean contains(long value) {
+		if (value == 0) {
+			return hasZero;
+		}
+		int i = slot(value);
+		while (table[i] != 0) {
+			if (table[i] == value) {
+				return true;
+			}
+			i = (i + 1) & mask;
+		}
+		return false;
+	}
+
+	/**
+	 * removes a value from the set
+	 *
+	 * @param value value to be removed
+	 * @return true if the value was in the set
+	 */
+	public boolean remove(long value) {
+		if (value == 0) {
+			if (!hasZero) {
+				return false;
+			}
+			hasZero = false;
+			size--;
+			return true;
+		}
+		int i = slot(value);
+		while (table[i] != value) {
+			if (table[i] == 0) {
+				return false;
+			}
+			i = (i + 1) & mask;
+		}
+		// shift the following values back so no probe chain is broken
+		int j = i;
+		while (true) {
+			j = (j + 1) & mask;
+			if (table[j] == 0) {
+				break;
+			}
+			int home = slot(table[j]);
+			if (((j - home) & mask) >= ((j - i) & mask)) {
+				table[i] = table[j];
+				i = j;
+			}
+		}
+		table[i] = 0;
+		size--;
+		return true;
+	}
+
+	/**
+	 * removes all the values, the table is kept for reuse
+	 */
+	public void clear() {
+		if (size > 0) {
+			Arrays.fill(table, 0);
+			hasZero = false;
+			size = 0;
+		}
+	}
+
+	// number of values in the set
+	public int size() {
+		return size;
+	}
+
+	// home slot of a value
+	private int slot(long value) {
+		long h = value * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32)) & mask;
+	}
+
+	// doubles the table
+	private void grow() {
+		long[] old = table;
+		table = new long[old.length * 2];
+		mask = table.length - 1;
+		for (int i = 0; i < old.length; i++) {
+			if (old[i] != 0) {
+				int j = slot(old[i]);
+				while (table[j] != 0) {
+					j = (j + 1) & mask;
+				}
+				table[j] = old[i];
+			}
+		}
+	}
+
+}
@@ -0,0 +1,108 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Class Mailbox is a bounded lock-free queue with many senders and one
+ * receiver, through which the islands pass migrating tours to each
+ * other without waiting. It is the array queue of Dmitry Vyukov: every
+ * slot has a sequence number which tells if the slot is free for the
+ * sender at a position or filled for the receiver at it. Senders claim
+ * a position with a compare and set on the tail, items are taken with
+ * a compare and set on the head.
+ *
+ * The item is written before the volatile write of the sequence number
+ * of its slot and read after the volatile read of it, so the receiver
+ * always sees the whole item. A full mailbox refuses the item of
+ * offer() instead of blocking. put() takes out the oldest item instead,
+ * so a mailbox which is not emptied for a while keeps the newest
+ * migrants. An island never waits.
+ *
+ * @author Satyajeet Shahane, Ajeeth Kannan
+ */
+public class Mailbox<T> {
+
+	private Object[] items; // item in each slot
+	private AtomicLongArray sequence; // position the slot is ready for
+	private int mask; // capacity - 1, capacity is a power of 2
+	private AtomicLong tail = new AtomicLong(); // next position to send to
+	private AtomicLong head = new AtomicLong(); // next position to receive from
+
+	/**
+	 * Parameterized constructor
+	 *
+	 * @param capacity largest number of items waiting, rounded up to a
+	 * power of 2
+	 */
+	public Mailbox(int capacity) {
+		int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+		items = new Object[size];
+		sequence = new AtomicLongArray(size);
+		for (int i = 0; i < size; i++) {
+			sequence.set(i, i);
+		}
+		mask = size - 1;
+	}
+
+	/**
+	 * Sends an item, can be called by any thread.
+	 *
+	 * @param item item to be sent
+	 * @return false if the mailbox is full and the item was not sent
+	 */
+	public boolean offer(T item) {
+		while (true) {
+			long position = tail.get();
+			int slot = (int) position & mask;
+			long difference = sequence.get(slot) - position;
+			if (difference == 0) {
+				if (tail.compareAndSet(position, position + 1)) {
+					items[slot] = item;
+					sequence.set(slot, position + 1);
+					return true;
+				}
+			}
+			else if (difference < 0) {
+				return false;
+			}
+		}
+	}
+
+	/**
+	 * Sends an item, can be called by any thread. If the mailbox is full
+	 * the oldest items are taken out and lost until the item fits.
+	 *
+	 * @param item item to be sent
+	 */
+	public void put(T item) {
+		while (!offer(item)) {
+			poll();
+		}
+	}
+
+	/**
+	 * Receives the oldest item. It is called by the thread of the island
+	 * which owns the mailbox, and by put() to make room.
+	 *
+	 * @return the item, null if the mailbox is empty
+	 */
+	@SuppressWarnings("unchecked")
+	public T poll() {
+		while (true) {
+			long position = head.get();
+			int slot = (int) position & mask;
+			long difference = sequence.get(slot) - (position + 1);
+			if (difference == 0) {
+				if (head.compareAndSet(position, position + 1)) {
+					T item = (T) items[slot];
+					items[slot] = null;
+					sequence.set(slot, position + mask + 1);
+					return item;
+				}
+			}
+			else if (difference < 0) {
+				return null;
+			}
+		}
+	}
+
+}
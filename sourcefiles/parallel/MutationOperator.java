@@ -0,0 +1,26 @@
+import edu.rit.util.Random;
+
+/**
+ * Interface MutationOperator is a mutation of the genetic algorithm
+ * working on a tour kept as a permutation of city indices in an int
+ * array. The operator changes the tour in place and returns the change
+ * in its length, computed only from the edges it changed, so the tour
+ * does not have to be measured again.
+ *
+ * GAConfig.newMutation() makes the operator chosen for a run.
+ *
+ * @author Satyajeet Shahane, Ajeeth Kannan
+ */
+public interface MutationOperator {
+
+	/**
+	 * Mutates a tour.
+	 *
+	 * @param path array holding the tour
+	 * @param off offset of the tour
+	 * @param random random for the choices of the operator
+	 * @return new length minus old length
+	 */
+	public double mutate(int[] path, int off, Random random);
+
+}
@@ -0,0 +1,64 @@
+/**
+ * Class NeighborList keeps the K nearest cities of every city, nearest
+ * first. Operators and local search only look at these candidates
+ * instead of all the N cities.
+ *
+ * The list is never changed after it is built. DistanceMatrix caches one
+ * instance, so all the cores of a node share it.
+ *
+ * @author Satyajeet Shahane, Ajeeth Kannan
+ */
+public class NeighborList {
+
+	private final int K; // neighbors of each city
+	private final int[] neighbors; // neighbors of city c are neighbors[c*K .. c*K+K-1]
+
+	/**
+	 * Parameterized constructor
+	 *
+	 * @param distanceMatrix distance between every pair of cities
+	 * @param K number of neighbors of each city, at most N-1 are kept
+	 */
+	public NeighborList(DistanceMatrix distanceMatrix, int K) {
+		int N = distanceMatrix.size();
+		this.K = Math.max(0, Math.min(K, N - 1));
+		neighbors = new int[N * this.K];
+		for (int c = 0; c < N; c++) {
+			int base = c * this.K;
+			int count = 0;
+			// insertion into the sorted list of the nearest cities
+			for (int other = 0; other < N; other++) {
+				if (other == c) {
+					continue;
+				}
+				double d = distanceMatrix.distance(c, other);
+				if (count == this.K && d >= distanceMatrix.distance(c, neighbors[base + count - 1])) {
+					continue;
+				}
+				int i = count < this.K ? count++ : count - 1;
+				while (i > 0 && distanceMatrix.distance(c, neighbors[base + i - 1]) > d) {
+					neighbors[base + i] = neighbors[base + i - 1];
+					i--;
+				}
+				neighbors[base + i] = other;
+			}
+		}
+	}
+
+	// number of neighbors of each city
+	public int size() {
+		return K;
+	}
+
+	/**
+	 * neighbor of a city
+	 *
+	 * @param city index of the city
+	 * @param rank 0 for the nearest city
+	 * @return index of the neighbor
+	 */
+	public int get(int city, int rank) {
+		return neighbors[city * K + rank];
+	}
+
+}
@@ -0,0 +1,184 @@
+/**
+ * Class OrOpt improves a tour with or-opt moves until no move shortens
+ * it. A move takes a segment s1..s2 of one to three cities out from
+ * between p and n and puts it into another edge (u,v), either as it was
+ * or turned around. It changes three edges, so it is the segment
+ * insertion case of 3-opt that 2-opt can not reach.
+ *
+ * Taking the segment out gains g = d(p,s1) + d(s2,n) - d(p,n). Only the
+ * K nearest neighbors of the ends of the segment are tried as the city
+ * it is put next to, and only while they are closer than g. The moves
+ * are made as two or three 2-opt moves of IndexedTour. Don't-look bits
+ * are kept in a CityQueue as in TwoOpt.
+ *
+ * @author Satyajeet Shahane, Ajeeth Kannan
+ */
+public class OrOpt implements LocalSearch {
+
+	private static final double EPSILON = 1e-10; // smallest gain taken as a gain
+	private static final int MAX_SEGMENT = 3; // longest segment moved
+
+	private int N; // number of cities
+	private int K; // neighbors tried for each end of a segment
+	private DistanceMatrix distanceMatrix; // distance between every pair of cities
+	private NeighborList neighborList; // nearest neighbors of every city
+	private IndexedTour tour; // tour being improved
+	private CityQueue queue; // cities with their don't-look bit off
+
+	/**
+	 * Parameterized constructor
+	 *
+	 * @param distanceMatrix distance between every pair of cities
+	 * @param K number of neighbors tried for each end of a segment
+	 */
+	public OrOpt(DistanceMatrix distanceMatrix, int K) {
+		this.distanceMatrix = distanceMatrix;
+		N = distanceMatrix.size();
+		neighborList = distanceMatrix.getNeighborList(K);
+		this.K = Math.min(K, neighborList.size());
+		tour = new IndexedTour(N);
+		queue = new CityQueue(N);
+	}
+
+	/**
+	 * improve() declared in Interface LocalSearch
+	 */
+	public double improve(int[] path, int off) {
+		if (N < MAX_SEGMENT + 3) {
+			return 0;
+		}
+		tour.load(path, off);
+		queue.pushAll(path, off);
+		return search();
+	}
+
+	/**
+	 * improve() declared in Interface LocalSearch
+	 */
+	public double improve(int[] path, int off, int[] cities, int count) {
+		if (N < MAX_SEGMENT + 3) {
+			return 0;
+		}
+		tour.load(path, off);
+		for (int i = 0; i < count; i++) {
+			queue.push(cities[i]);
+		}
+		return search();
+	}
+
+	// looks at the cities in the queue until it is empty
+	private double search() {
+		double delta = 0;
+		while (!queue.isEmpty()) {
+			delta = delta + improveCity(queue.pop());
+		}
+		return delta;
+	}
+
+	// tries to move the segments starting at city a, makes the first move that gains
+	private double improveCity(int a) {
+		for (int forward = 1; forward >= 0; forward--) {
+			int s2 = a;
+			int middle = a;
+			for (int length = 1; length <= MAX_SEGMENT; length++) {
+				if (length > 1) {
+					middle = s2;
+					s2 = step(s2, forward);
+				}
+				// a segment of one city is the same in both directions
+				if (length == 1 && forward == 0) {
+					continue;
+				}
+				int p = step(a, 1 - forward);
+				int n = step(s2, forward);
+				double gain = distanceMatrix.distance(p, a) + distanceMatrix.distance(s2, n)
+						- distanceMatrix.distance(p, n);
+				if (gain <= EPSILON) {
+					continue;
+				}
+				double delta = insert(p, a, middle, s2, n, forward, gain);
+				if (delta < 0) {
+					return delta;
+				}
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Looks for an edge to put the segment s1..s2 into and makes the
+	 * first move that gains.
+	 *
+	 * @param p city before the segment
+	 * @param s1 first city of the segment
+	 * @param middle a city of the segment, s1 or s2 for short segments
+	 * @param s2 last city of the segment
+	 * @param n city after the segment
+	 * @param forward 1 if the segment goes forward in the tour from s1
+	 * @param gain gain of taking the segment out
+	 * @return change in length, 0 if no move was made
+	 */
+	private double insert(int p, int s1, int middle, int s2, int n, int forward, double gain) {
+		for (int end = 0; end < 2; end++) {
+			int e = end == 0 ? s1 : s2;
+			int f = end == 0 ? s2 : s1;
+			for (int k = 0; k < K; k++) {
+				int c = neighborList.get(e, k);
+				double ec = distanceMatrix.distance(e, c);
+				if (ec >= gain) {
+					break;
+				}
+				if (c == s1 || c == middle || c == s2) {
+					continue;
+				}
+				for (int side = 0; side < 2; side++) {
+					int d = side == 0 ? tour.next(c) : tour.previous(c);
+					if (d == s1 || d == middle || d == s2) {
+						continue;
+					}
+					double delta = ec + distanceMatrix.distance(f, d) - distanceMatrix.distance(c, d) - gain;
+					if (delta < -EPSILON) {
+						// v follows u in the direction of the segment
+						boolean cFirst = d == step(c, forward);
+						int u = cFirst ? c : d;
+						int v = cFirst ? d : c;
+						boolean turned = s1 == s2 || (e == s1) != cFirst;
+						move(p, s1, s2, n, u, v, turned);
+						queue.push(p);
+						queue.push(s1);
+						queue.push(s2);
+						queue.push(n);
+						queue.push(u);
+						queue.push(v);
+						return delta;
+					}
+				}
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Moves the segment s1..s2 from between p and n into the edge
+	 * (u,v). The cities p s1 .. s2 n and u v must go in the same
+	 * direction.
+	 *
+	 * @param turned true to get u s2 .. s1 v, false to get u s1 .. s2 v
+	 */
+	private void move(int p, int s1, int s2, int n, int u, int v, boolean turned) {
+		// p s1 .. s2 n .. u v becomes p u .. n s2 .. s1 v
+		tour.move(p, s1, u, v);
+		// then p n .. u s2 .. s1 v
+		tour.move(p, u, n, s2);
+		if (!turned) {
+			// then p n .. u s1 .. s2 v
+			tour.move(u, s2, s1, v);
+		}
+	}
+
+	// city next to the given city, forward if forward is 1
+	private int step(int city, int forward) {
+		return forward == 1 ? tour.next(city) : tour.previous(city);
+	}
+
+}
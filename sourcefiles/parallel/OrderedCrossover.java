@@ -0,0 +1,63 @@
+import edu.rit.util.Random;
+
+/**
+ * Class OrderedCrossover implements ordered crossover (OX). The cities
+ * from crossPoint1 to crossPoint2 are copied from parent1, the rest are
+ * filled in the order they come in parent2 starting from crossPoint2.
+ *
+ * placed marks the cities already in the child, so a child is made in
+ * O(N) without creating any objects.
+ *
+ * @author Satyajeet Shahane, Ajeeth Kannan
+ */
+public class OrderedCrossover implements CrossoverOperator {
+
+	private int N; // number of cities
+	private boolean[] placed; // cities already placed in the child
+
+	/**
+	 * Parameterized constructor
+	 *
+	 * @param N number of cities in a tour
+	 */
+	public OrderedCrossover(int N) {
+		this.N = N;
+		placed = new boolean[N];
+	}
+
+	/**
+	 * crossover() declared in Interface CrossoverOperator
+	 */
+	public void crossover(int[] path1, int off1, int[] path2, int off2, int[] child, int offChild, Random random) {
+
+		int crossPoint1 = random.nextInt(N);
+		int crossPoint2 = random.nextInt(N);
+		while( crossPoint1 >= crossPoint2 ) {
+			crossPoint1 = random.nextInt(N);
+			crossPoint2 = random.nextInt(N);
+		}
+
+		for( int i = 0; i < N; i++ ) {
+			placed[i] = false;
+		}
+		for( int i = crossPoint1; i < crossPoint2; i++ ) {
+			child[offChild + i] = path1[off1 + i];
+			placed[path1[off1 + i]] = true;
+		}
+
+		// next position of parent2 to look at
+		int j = crossPoint2;
+		int i = crossPoint2;
+		while( i != crossPoint1 ) {
+			int city = path2[off2 + j];
+			j = j + 1 == N ? 0 : j + 1;
+			if( !placed[city] ) {
+				placed[city] = true;
+				child[offChild + i] = city;
+				i = i + 1 == N ? 0 : i + 1;
+			}
+		}
+
+	}
+
+}
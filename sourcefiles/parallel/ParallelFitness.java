@@ -0,0 +1,95 @@
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Class ParallelFitness evaluates the tours of one population on a
+ * fork-join pool, for evaluation=parallel. The population is split into
+ * chunks of about CHUNK_CITIES cities each. Every chunk computes the
+ * length of its tours which are not evaluated yet, those with a NaN
+ * length, and returns the largest length of its tours. The maxima of
+ * the chunks are reduced to the maximum of the population, which the
+ * fitness of every tour is computed from.
+ *
+ * One instance can be shared by all the islands of a node, evaluate()
+ * keeps no state between calls.
+ *
+ * @author Satyajeet Shahane, Ajeeth Kannan
+ */
+public class ParallelFitness {
+
+	private static final int CHUNK_CITIES = 1 << 16; // cities evaluated by one chunk
+
+	private DistanceMatrix distanceMatrix; // distance between every pair of cities
+	private ForkJoinPool pool; // threads evaluating the chunks
+	private int grain; // tours in one chunk
+
+	/**
+	 * Parameterized constructor
+	 *
+	 * @param distanceMatrix distance between every pair of cities
+	 * @param pool threads evaluating the chunks
+	 */
+	public ParallelFitness(DistanceMatrix distanceMatrix, ForkJoinPool pool) {
+		this.distanceMatrix = distanceMatrix;
+		this.pool = pool;
+		grain = Math.max(1, CHUNK_CITIES / Math.max(1, distanceMatrix.size()));
+	}
+
+	/**
+	 * Computes the length of every tour with a NaN length.
+	 *
+	 * @param tours tours of the population
+	 * @return largest length of the tours, 0 if there is none
+	 */
+	public double evaluate(ArrayList<Tour> tours) {
+		if (tours.size() <= grain) {
+			return new Chunk(tours, 0, tours.size()).compute();
+		}
+		return pool.invoke(new Chunk(tours, 0, tours.size()));
+	}
+
+	/**
+	 * Class Chunk evaluates the tours from lo to hi - 1, splitting the
+	 * range in two until it has at most grain tours.
+	 */
+	private class Chunk extends RecursiveTask<Double> {
+
+		private static final long serialVersionUID = 1L; // tasks are never serialized
+
+		private ArrayList<Tour> tours; // tours of the population
+		private int lo; // first tour of the chunk
+		private int hi; // one after the last tour of the chunk
+
+		// parameterized constructor
+		Chunk(ArrayList<Tour> tours, int lo, int hi) {
+			this.tours = tours;
+			this.lo = lo;
+			this.hi = hi;
+		}
+
+		/**
+		 * compute() declared in Class RecursiveTask
+		 */
+		protected Double compute() {
+			if (hi - lo > grain) {
+				int middle = (lo + hi) >>> 1;
+				Chunk left = new Chunk(tours, lo, middle);
+				left.fork();
+				double right = new Chunk(tours, middle, hi).compute();
+				return Math.max(left.join(), right);
+			}
+			double maxDistance = 0;
+			for (int i = lo; i < hi; i++) {
+				Tour tour = tours.get(i);
+				if (Double.isNaN(tour.getEucDistance())) {
+					tour.calculateDistance(distanceMatrix);
+				}
+				maxDistance = Math.max(maxDistance, tour.getEucDistance());
+			}
+			return maxDistance;
+		}
+
+	}
+
+}
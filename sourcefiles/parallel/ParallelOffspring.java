@@ -0,0 +1,231 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import edu.rit.util.Random;
+
+/**
+ * Class ParallelOffspring makes the children of one generation on a
+ * fork-join pool, for offspring=parallel. The genetic algorithm draws
+ * the parents of every child, which is O(1) for each child, and adds
+ * them with addCrossover() or addMutation(). breed() then makes the
+ * children in tasks: crossover or mutation, the local search of the run
+ * and the length. The range of children is split in two until a task
+ * has a few children, idle threads steal the halves, so children with
+ * a long local search do not keep the other threads waiting.
+ *
+ * Every thread has its own operators, local search and Random in a
+ * ThreadLocal. Child i draws from the stream seed + i*CHILD_STREAM, so
+ * the children do not depend on which thread makes them or on the
+ * number of threads. The genetic algorithm merges the children in
+ * their order, leaving out duplicates.
+ *
+ * @author Satyajeet Shahane, Ajeeth Kannan
+ */
+public class ParallelOffspring {
+
+	private static final int CHUNK_CITIES = 1 << 14; // cities of the children of one task
+	private static final long CHILD_STREAM = 1L << 32; // random numbers each child can draw
+
+	private int N; // number of cities
+	private int grain; // children in one task
+	private ForkJoinPool pool; // threads making the children
+	private ThreadLocal<Breeder> breeders; // operators of each thread
+	private ArrayList<Tour> parents; // population the parents are taken from
+	private long seed; // seed of the random streams of this generation
+	private int count; // number of children
+	private int[] parent1; // rank of the first parent of each child
+	private int[] parent2; // rank of the second parent, -1 for a mutation
+	private int[][] paths; // each child
+	private double[] lengths; // length of each child
+	private long[] hashes; // hash of each child
+
+	/**
+	 * Parameterized constructor
+	 *
+	 * @param config options of this run, for the operators of the threads
+	 * @param distanceMatrix distance between every pair of cities
+	 * @param pool threads making the children
+	 */
+	public ParallelOffspring(final GAConfig config, final DistanceMatrix distanceMatrix, ForkJoinPool pool) {
+		this.pool = pool;
+		N = distanceMatrix.size();
+		grain = Math.max(1, CHUNK_CITIES / Math.max(1, N));
+		breeders = new ThreadLocal<Breeder>() {
+			protected Breeder initialValue() {
+				return new Breeder(config, distanceMatrix);
+			}
+		};
+		parent1 = new int[16];
+		parent2 = new int[16];
+		paths = new int[16][];
+		lengths = new double[16];
+		hashes = new long[16];
+	}
+
+	// removes the children of the last generation
+	public void clear() {
+		count = 0;
+	}
+
+	/**
+	 * Adds a child made by crossover.
+	 *
+	 * @param rank1 rank of the first parent
+	 * @param rank2 rank of the second parent
+	 */
+	public void addCrossover(int rank1, int rank2) {
+		add(rank1, rank2);
+	}
+
+	/**
+	 * Adds a child made by mutation.
+	 *
+	 * @param rank rank of the parent
+	 */
+	public void addMutation(int rank) {
+		add(rank, -1);
+	}
+
+	// adds a child, growing the arrays if needed
+	private void add(int rank1, int rank2) {
+		if (count == parent1.length) {
+			int capacity = count * 2;
+			parent1 = Arrays.copyOf(parent1, capacity);
+			parent2 = Arrays.copyOf(parent2, capacity);
+			paths = Arrays.copyOf(paths, capacity);
+			lengths = Arrays.copyOf(lengths, capacity);
+			hashes = Arrays.copyOf(hashes, capacity);
+		}
+		parent1[count] = rank1;
+		parent2[count] = rank2;
+		count++;
+	}
+
+	/**
+	 * Makes all the children added since clear().
+	 *
+	 * @param parents population the ranks refer to
+	 * @param seed seed of the random streams, drawn by the island
+	 */
+	public void breed(ArrayList<Tour> parents, long seed) {
+		this.parents = parents;
+		this.seed = seed;
+		if (count <= grain) {
+			new Batch(0, count).compute();
+		}
+		else {
+			pool.invoke(new Batch(0, count));
+		}
+		this.parents = null;
+	}
+
+	// number of children
+	public int size() {
+		return count;
+	}
+
+	// path of a child, a new array owned by the caller
+	public int[] getPath(int child) {
+		return paths[child];
+	}
+
+	// getter for the length of a child
+	public double getLength(int child) {
+		return lengths[child];
+	}
+
+	// getter for the hash of a child
+	public long getHash(int child) {
+		return hashes[child];
+	}
+
+	/**
+	 * Class Batch makes the children from lo to hi - 1, splitting the
+	 * range in two until it has at most grain children.
+	 */
+	private class Batch extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L; // tasks are never serialized
+
+		private int lo; // first child of the batch
+		private int hi; // one after the last child of the batch
+
+		// parameterized constructor
+		Batch(int lo, int hi) {
+			this.lo = lo;
+			this.hi = hi;
+		}
+
+		/**
+		 * compute() declared in Class RecursiveAction
+		 */
+		protected void compute() {
+			if (hi - lo > grain) {
+				int middle = (lo + hi) >>> 1;
+				invokeAll(new Batch(lo, middle), new Batch(middle, hi));
+				return;
+			}
+			Breeder breeder = breeders.get();
+			for (int i = lo; i < hi; i++) {
+				breeder.random.setSeed(seed);
+				breeder.random.skip(i * CHILD_STREAM);
+				int[] path = new int[N];
+				lengths[i] = breeder.breed(parents.get(parent1[i]), parent2[i] < 0 ? null : parents.get(parent2[i]), path);
+				paths[i] = path;
+				hashes[i] = Tour.hash(path, 0, N);
+			}
+		}
+
+	}
+
+	/**
+	 * Class Breeder holds the operators of one thread.
+	 */
+	private static class Breeder {
+
+		private DistanceMatrix distanceMatrix; // distance between every pair of cities
+		private CrossoverOperator crossoverOperator; // crossover chosen for this run
+		private MutationOperator mutationOperator; // mutation chosen for this run
+		private LocalSearch localSearch; // local search on the children, null if none
+		private Random random = new Random(0); // reseeded for every child
+
+		// parameterized constructor
+		Breeder(GAConfig config, DistanceMatrix distanceMatrix) {
+			this.distanceMatrix = distanceMatrix;
+			crossoverOperator = config.newCrossover(distanceMatrix);
+			mutationOperator = config.newMutation(distanceMatrix);
+			localSearch = config.newLocalSearch(distanceMatrix);
+		}
+
+		/**
+		 * Makes one child.
+		 *
+		 * @param parent1 parent to cross over or mutate
+		 * @param parent2 second parent, null for a mutation
+		 * @param path filled with the child
+		 * @return length of the child
+		 */
+		double breed(Tour parent1, Tour parent2, int[] path) {
+			double length;
+			if (parent2 == null) {
+				System.arraycopy(parent1.getPath(), 0, path, 0, path.length);
+				length = parent1.getEucDistance() + mutationOperator.mutate(path, 0, random);
+			}
+			else {
+				crossoverOperator.crossover(parent1.getPath(), 0, parent2.getPath(), 0, path, 0, random);
+				length = distanceMatrix.distance(path[path.length - 1], path[0]);
+				for (int i = 1; i < path.length; i++) {
+					length = length + distanceMatrix.distance(path[i - 1], path[i]);
+				}
+			}
+			if (localSearch != null) {
+				length = length + localSearch.improve(path, 0);
+			}
+			return length;
+		}
+
+	}
+
+}
@@ -0,0 +1,64 @@
+import edu.rit.util.Random;
+
+/**
+ * Class PartiallyMappedCrossover implements partially mapped crossover
+ * (PMX). The cities from crossPoint1 to crossPoint2 are copied from
+ * parent1, every other position takes the city of parent2. A city of
+ * parent2 which is already in the copied segment is replaced by
+ * following the mapping between the two segments.
+ *
+ * @author Satyajeet Shahane, Ajeeth Kannan
+ */
+public class PartiallyMappedCrossover implements CrossoverOperator {
+
+	private int N; // number of cities
+	private boolean[] inSegment; // cities copied from parent1
+	private int[] position1; // position of each city in parent1
+
+	/**
+	 * Parameterized constructor
+	 *
+	 * @param N number of cities in a tour
+	 */
+	public PartiallyMappedCrossover(int N) {
+		this.N = N;
+		inSegment = new boolean[N];
+		position1 = new int[N];
+	}
+
+	/**
+	 * crossover() declared in Interface CrossoverOperator
+	 */
+	public void crossover(int[] path1, int off1, int[] path2, int off2, int[] child, int offChild, Random random) {
+
+		int crossPoint1 = random.nextInt(N);
+		int crossPoint2 = random.nextInt(N);
+		while( crossPoint1 >= crossPoint2 ) {
+			crossPoint1 = random.nextInt(N);
+			crossPoint2 = random.nextInt(N);
+		}
+
+		for( int i = 0; i < N; i++ ) {
+			inSegment[i] = false;
+			position1[path1[off1 + i]] = i;
+		}
+		for( int i = crossPoint1; i < crossPoint2; i++ ) {
+			child[offChild + i] = path1[off1 + i];
+			inSegment[path1[off1 + i]] = true;
+		}
+
+		for( int i = 0; i < N; i++ ) {
+			if( i == crossPoint1 ) {
+				i = crossPoint2 - 1;
+				continue;
+			}
+			int city = path2[off2 + i];
+			while( inSegment[city] ) {
+				city = path2[off2 + position1[city]];
+			}
+			child[offChild + i] = city;
+		}
+
+	}
+
+}
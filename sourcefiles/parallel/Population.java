@@ -11,12 +11,16 @@ import edu.rit.util.AList;
  * implemented in SortTours to sort the tours according to the fitness value. 
  * The class has getTopPopAsAlist() to return best tours in a population. 
  * 
+ * The hash of every tour is kept in a LongHashSet, so contains() does not
+ * have to compare the tour with all the tours in the population.
+ * 
  * @author Satyajeet Shahane, Ajeeth Kannan
  */
 public class Population {
 
 	protected ArrayList<Tour> tours = new ArrayList<Tour>();
 	protected Tour initTour;
+	private LongHashSet hashes = new LongHashSet(); // hash of each tour
 
 	// default constructor
 	public Population() {
@@ -32,7 +36,7 @@ public class Population {
 	 */
 	public Population(Population population) {
 		for (int i = 0; i < population.tours.size(); i++) {
-			this.tours.add(new Tour(population.tours.get(i)));
+			addTour(new Tour(population.tours.get(i)));
 		}
 	}
 
@@ -44,37 +48,74 @@ public class Population {
 	 *  
 	 * @param initTour initial tour generated
 	 * @param size size of a tour
+	 * @param seed seed for shuffling the initial tour
+	 * @param distanceMatrix distance between every pair of cities
 	 */
-	public Population(Tour initTour, int size, int seed) {
-		
+	public Population(Tour initTour, int size, int seed, DistanceMatrix distanceMatrix) {
+
 		this.initTour = new Tour(initTour);
+		fill(size, seed, distanceMatrix);
+	}
+
+	/**
+	 *  Parameterized constructor
+	 *
+	 *  Tours built by TourSeeding form the population for the first
+	 *  generation. Tours which are already in the population are left
+	 *  out, the missing tours are made by shuffling as above.
+	 *
+	 * @param seedTours tours built for all the islands
+	 * @param from index of the first tour of this population in seedTours
+	 * @param size size of a tour
+	 * @param seed seed for shuffling the missing tours
+	 * @param distanceMatrix distance between every pair of cities
+	 */
+	public Population(Tour[] seedTours, int from, int size, int seed, DistanceMatrix distanceMatrix) {
+
+		for (int i = from; i < from + size; i++) {
+			if (!contains(seedTours[i])) {
+				addTour(seedTours[i]);
+			}
+		}
+		this.initTour = new Tour(seedTours[from]);
+		fill(size, seed, distanceMatrix);
+	}
+
+	/**
+	 * shuffles the initial tour and adds the new tours until the
+	 * population has the given size.
+	 */
+	private void fill(int size, int seed, DistanceMatrix distanceMatrix) {
+
 		Random random = new Random(seed);
 
-		do {
+		while (tours.size() < size) {
 			this.initTour.Shuffle(random );
 			if (tours.size() == 0) {
 				Tour tour = new Tour(this.initTour);
-				tour.calculateDistance();
-				tours.add(tour);
+				tour.calculateDistance(distanceMatrix);
+				addTour(tour);
 			} else {
 				if (!contains()) {
 					Tour tour = new Tour(this.initTour);
-					tour.calculateDistance();
-					tours.add(tour);
+					tour.calculateDistance(distanceMatrix);
+					addTour(tour);
 				}
 			}
-		} while (tours.size() != size);
+		}
 	}
 	
 	/**
-	 * The method is called only by the constructor and checks 
-	 * if the tour is contained already. 
+	 * copies the tours of the given population into this population,
+	 * tours which are already in this population are not copied again.
 	 * 
-	 * @return true if the tour already exist
+	 * @param population tours to be copied from
 	 */
 	public void copyPopulation(Population population) {
 		for (int i = 0; i < population.tours.size(); i++) {
-			this.tours.add(new Tour(population.tours.get(i)));
+			if (!contains(population.tours.get(i))) {
+				addTour(new Tour(population.tours.get(i)));
+			}
 		}
 	}
 	
@@ -87,7 +128,7 @@ public class Population {
 	public AList<Tour> getTopPopAsAlist(int migratingRate) {
 		AList<Tour> migratingList = new AList<Tour>();
 		
-		for( int i = 0; i < migratingRate; i++ ) {
+		for( int i = 0; i < Math.min(migratingRate, tours.size()); i++ ) {
 			Tour tour = new Tour(tours.get(i));
 			migratingList.addLast(tour);
 		}
@@ -102,13 +143,7 @@ public class Population {
 	 * @return true if the tour already exist
 	 */
 	private boolean contains() {
-		boolean isContained = false;
-		for (int i = 0; i < tours.size(); i++) {
-			if (tours.get(i).getTourString().equals(initTour.getTourString())) {
-				isContained = true;
-			}
-		}
-		return isContained;
+		return hashes.contains(initTour.getHash());
 	}
 	
 	/**
@@ -118,13 +153,17 @@ public class Population {
 	 * @return true if the tour already exist
 	 */
 	public boolean contains(Tour tour) {
-		boolean isContained = false;
-		for (int i = 0; i < this.tours.size(); i++) {
-			if (this.tours.get(i).getTourString().equals(tour.getTourString())) {
-				isContained = true;
-			}
-		}
-		return isContained;
+		return hashes.contains(tour.getHash());
+	}
+	
+	/**
+	 * checks if a tour with the given hash is contained already. 
+	 * 
+	 * @param hash hash of the tour to be checked
+	 * @return true if the tour already exist
+	 */
+	public boolean contains(long hash) {
+		return hashes.contains(hash);
 	}
 	
 	/**
@@ -143,6 +182,19 @@ public class Population {
 	 */
 	public void addTour(Tour tour) {
 		tours.add(tour);
+		hashes.add(tour.getHash());
+	}
+	
+	/**
+	 * replaces the tour at the given position
+	 * 
+	 * @param index position of the tour to be replaced
+	 * @param tour tour to be stored
+	 */
+	public void setTour(int index, Tour tour) {
+		hashes.remove(tours.get(index).getHash());
+		tours.set(index, tour);
+		hashes.add(tour.getHash());
 	}
 
 	/**
@@ -150,6 +202,54 @@ public class Population {
 	 */
 	public void clearTours() {
 		tours.clear();
+		hashes.clear();
+	}
+	
+	/**
+	 * improves all the tours with a local search. Tours which become
+	 * the same as another tour are left out, the missing tours are made
+	 * by shuffling as in fill() and improved as well. When improved
+	 * shuffles keep ending in tours already in the population, as for a
+	 * few cities with a strong local search, shuffles are added without
+	 * improving them, so the size does not change and no tour is there
+	 * twice.
+	 * 
+	 * @param localSearch local search to be applied
+	 * @param seed seed for shuffling the missing tours
+	 * @param distanceMatrix distance between every pair of cities
+	 */
+	public void improve(LocalSearch localSearch, int seed, DistanceMatrix distanceMatrix) {
+		int size = tours.size();
+		ArrayList<Tour> improved = tours;
+		tours = new ArrayList<Tour>(size);
+		hashes.clear();
+		for (int i = 0; i < improved.size(); i++) {
+			Tour tour = improved.get(i).improve(localSearch);
+			if (!contains(tour)) {
+				addTour(tour);
+			}
+		}
+		if (tours.size() == size) {
+			return;
+		}
+		if (this.initTour == null) {
+			this.initTour = new Tour(tours.get(0));
+		}
+		Random random = new Random(seed);
+		int misses = 0; // improved shuffles which were already in the population
+		while (tours.size() < size) {
+			this.initTour.Shuffle(random);
+			Tour tour = new Tour(this.initTour);
+			tour.calculateDistance(distanceMatrix);
+			if (misses < size) {
+				tour.improve(localSearch);
+			}
+			if (!contains(tour)) {
+				addTour(tour);
+			} else {
+				misses++;
+			}
+		}
 	}
 	
 	// size of the tours
@@ -165,6 +265,10 @@ public class Population {
 	// setter for tours
 	public void setTours(ArrayList<Tour> tours) {
 		this.tours = tours;
+		hashes.clear();
+		for (int i = 0; i < tours.size(); i++) {
+			hashes.add(tours.get(i).getHash());
+		}
 	}
 	
 }
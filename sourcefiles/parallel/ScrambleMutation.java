@@ -0,0 +1,57 @@
+import edu.rit.util.Random;
+
+/**
+ * Class ScrambleMutation shuffles the cities between two random
+ * positions. The change in length is computed from the edges of the
+ * segment and the two edges at its ends.
+ *
+ * @author Satyajeet Shahane, Ajeeth Kannan
+ */
+public class ScrambleMutation implements MutationOperator {
+
+	private int N; // number of cities
+	private DistanceMatrix distanceMatrix; // distance between every pair of cities
+
+	/**
+	 * Parameterized constructor
+	 *
+	 * @param distanceMatrix distance between every pair of cities
+	 */
+	public ScrambleMutation(DistanceMatrix distanceMatrix) {
+		this.distanceMatrix = distanceMatrix;
+		N = distanceMatrix.size();
+	}
+
+	/**
+	 * mutate() declared in Interface MutationOperator
+	 */
+	public double mutate(int[] path, int off, Random random) {
+		int i = random.nextInt(N);
+		int j = random.nextInt(N);
+		if( i > j ) {
+			int temp = i;
+			i = j;
+			j = temp;
+		}
+		double before = segmentLength(path, off, i, j);
+		for( int k = j; k > i; k-- ) {
+			Tour.swap(path, off, k, i + random.nextInt(k - i + 1));
+		}
+		return segmentLength(path, off, i, j) - before;
+	}
+
+	// length of the edges from the city before i to the city after j
+	private double segmentLength(int[] path, int off, int i, int j) {
+		int from = i == 0 ? N - 1 : i - 1;
+		int count = Math.min(j - i + 2, N);
+		double length = 0;
+		int e = from;
+		for( int l = 0; l < count; l++ ) {
+			int f = e + 1 == N ? 0 : e + 1;
+			length = length + distanceMatrix.distance(path[off + e], path[off + f]);
+			e = f;
+		}
+		return length;
+	}
+
+}
@@ -0,0 +1,57 @@
+import edu.rit.util.Random;
+
+/**
+ * Class SegmentMutation moves a segment of random length from
+ * minLength to maxLength cities to follow a random city outside it.
+ * With a length of one it is insertion mutation, with two or three it
+ * is an or-opt move. Only three edges change.
+ *
+ * @author Satyajeet Shahane, Ajeeth Kannan
+ */
+public class SegmentMutation implements MutationOperator {
+
+	private int N; // number of cities
+	private int minLength; // shortest segment moved
+	private int maxLength; // longest segment moved
+	private DistanceMatrix distanceMatrix; // distance between every pair of cities
+
+	/**
+	 * Parameterized constructor
+	 *
+	 * @param distanceMatrix distance between every pair of cities
+	 * @param minLength shortest segment moved
+	 * @param maxLength longest segment moved
+	 */
+	public SegmentMutation(DistanceMatrix distanceMatrix, int minLength, int maxLength) {
+		this.distanceMatrix = distanceMatrix;
+		this.minLength = minLength;
+		this.maxLength = maxLength;
+		N = distanceMatrix.size();
+	}
+
+	/**
+	 * mutate() declared in Interface MutationOperator
+	 */
+	public double mutate(int[] path, int off, Random random) {
+		int length = minLength + random.nextInt(maxLength - minLength + 1);
+		// at least two cities must be left outside the segment
+		if( N - length < 2 ) {
+			return 0;
+		}
+		int i = random.nextInt(N - length + 1);
+		int j = i + length - 1;
+		// random position outside the segment, not the one before it
+		int k = random.nextInt(N - length - 1);
+		if( i == 0 ) {
+			k = k + length;
+		}
+		else if( k >= i - 1 ) {
+			k = k + length + 1;
+		}
+
+		double delta = Tour.moveSegmentDelta(path, off, N, i, j, k, distanceMatrix);
+		Tour.moveSegment(path, off, i, j, k);
+		return delta;
+	}
+
+}
@@ -20,24 +20,25 @@ import edu.rit.util.AList;
  */
 public class SmpTSPGA extends Job {
 	
-	private Tour initTour;
-	private int popSize = 30;
+	private CityTable cityTable;
+	private int popSize; // tours in the population of each island, pop=
 	private int iterGA; 
 	private int interMigaration;
 	private int intraMigaration;
 	private String inputFileName;
 	private String stringArray[];
+	private String options[]; // key=value options after the required arguments
 	
 	/**
 	 * Job main program.
 	 */
 	public void main(String args[]) throws IOException {
 		
-		initTour = new Tour();
+		long jobStart = System.currentTimeMillis();
 		
 		// Parse command line arguments
-		if( args.length != 4 ) {
-			throw new ArrayIndexOutOfBoundsException("SeqTSPGA should have 5 arguments");
+		if( args.length < 4 ) {
+			throw new ArrayIndexOutOfBoundsException("SmpTSPGA should have at least 4 arguments");
 		}
 		
 		inputFileName = args[0];
@@ -50,18 +51,29 @@ public class SmpTSPGA extends Job {
 			throw new NumberFormatException("Argument 2,3,4 should be a number");
 		}
 		
+		// check the options here, so a bad option fails before any task starts
+		popSize = GAConfig.parse(args, 4).getPopSize();
+		options = new String[args.length - 4];
+		System.arraycopy(args, 4, options, 0, options.length);
+		
 		addCities();
 		
 		int workerSize = workers();
-		int threadSize = ( workerSize*4 ) - 1;
 		
-		// put the initial tour into the tuple space
-		putTuple( new ObjectTuple<Tour>(initTour) );
+		// put the co-ordinates of the cities into the tuple space
+		putTuple( new ObjectTuple<CityTable>(cityTable) );
 		
 		// Set up a task group of K worker tasks
-		rule().task(workers(), WorkerTask.class).args(Integer.toString(threadSize),Integer.toString(popSize),
-				Integer.toString(workerSize),Integer.toString(iterGA),
-				Integer.toString(interMigaration),Integer.toString(intraMigaration));
+		// the time budget of time= is counted from the start of the job
+		String taskArgs[] = new String[6 + options.length];
+		taskArgs[0] = Integer.toString(popSize);
+		taskArgs[1] = Integer.toString(workerSize);
+		taskArgs[2] = Integer.toString(iterGA);
+		taskArgs[3] = Integer.toString(interMigaration);
+		taskArgs[4] = Integer.toString(intraMigaration);
+		taskArgs[5] = Long.toString(jobStart);
+		System.arraycopy(options, 0, taskArgs, 6, options.length);
+		rule().task(workers(), WorkerTask.class).args(taskArgs);
 		
 		// Set up reduction task
 		rule().atFinish().task(ReduceTask.class).runInJobProcess().args(stringArray);
@@ -112,7 +124,6 @@ public class SmpTSPGA extends Job {
 					x = Integer.parseInt(points[0]);
 					y = Integer.parseInt(points[1]);
 					city[i] = new City(x, y);
-					initTour.addCity(city[i]);
 					stringArray[i] = x + " " + y;
 				}	
 				catch(NumberFormatException e)
@@ -124,6 +135,9 @@ public class SmpTSPGA extends Job {
 					notEnoughNumber();
 				}				
 			}
+			
+			// built once, shared by all the tours
+			cityTable = new CityTable(city);
 		
 		}
 		catch( IOException e ) {
@@ -144,140 +158,168 @@ public class SmpTSPGA extends Job {
 	private static class WorkerTask extends Task {
 
 		
+		private CityTable cityTable;
+		private DistanceMatrix distanceMatrix;
+		private GAConfig config;
 		private Tour initTour;
 		
-		private int threadSize;
 		private int workerSize;
 		private int popSize;
 		static int taskRank;
 		private int beforeTaskRank;
 		private int N;
-		private int times = 0;
 		private int interGA;
 		private int interMigaration;
 		private int intraMigaration;
+		private long workStart; // time the islands start, with time=
+		private long workEnd; // time the last epoch ends, with time=
+		private int islands; // islands of this node, islands= or one per core
+		
+		private Population population[];
 		
-		private Population population[] = new Population[4];
+		private Tour seedTours[]; // first tours of all the islands, null for seeding=random
 		
-		private GeneticAlgorithm geneticAlgorithm[] = new GeneticAlgorithm[4]; 
+		private GeneticAlgorithm geneticAlgorithm[]; 
 		
 		private AList<Tour> nodeMigrationSend = new AList<Tour>();
 		private ArrayList<Tour> nodeMigrationReceive = new ArrayList<Tour>();
 		
 		private int migratingRate = 6;
 		
+		// part of the time budget kept for the polish and the reduction
+		private static final double FINISH_SHARE = 0.05;
+		
 		/**
 		 * Worker task main program
 		 */
 		public void main(String[] args) throws Exception {
 			
 			// reads tuple
-			initTour = readTuple(new ObjectTuple<Tour>()).item; 
+			cityTable = readTuple(new ObjectTuple<CityTable>()).item; 
+			initTour = new Tour(cityTable.size());
+			
+			// computed once, shared by all the cores of this node
+			distanceMatrix = new DistanceMatrix(cityTable);
 			
 			// parse command line arguments
-			threadSize = Integer.parseInt(args[0]);
-			popSize = Integer.parseInt(args[1]);
-			workerSize = Integer.parseInt(args[2]);
-			interGA = Integer.parseInt(args[3]);
-			interMigaration = Integer.parseInt(args[4]);
-			intraMigaration = Integer.parseInt(args[5]);
+			popSize = Integer.parseInt(args[0]);
+			workerSize = Integer.parseInt(args[1]);
+			interGA = Integer.parseInt(args[2]);
+			interMigaration = Integer.parseInt(args[3]);
+			intraMigaration = Integer.parseInt(args[4]);
+			long jobStart = Long.parseLong(args[5]);
+			config = GAConfig.parse(args, 6);
 			
 			N = initTour.getTourSize();
 			
 			// taskRank rank of this node
 			taskRank = taskRank();
 			
+			// one island per core unless islands= is given
+			islands = config.getIslands() > 0 ? config.getIslands() : cores();
+			population = new Population[islands];
+			geneticAlgorithm = new GeneticAlgorithm[islands];
+			
 			// taskRank rank of this neighbor node
 			beforeTaskRank = taskRank - 1;
 			if( beforeTaskRank == -1 ) {
 				beforeTaskRank = workerSize - 1;
 			}
 			
+			if( !config.isRandomSeeding() ) {
+				buildSeedTours();
+			}
+			
+			// initialize all the islands before any of them sends migrants
+			parallelFor(0, islands - 1).exec( new Loop() {
+				
+				// initialize one island
+				public void run(int rank) {
+					
+					// seed for this island, also the index of its random stream
+					int seed = islandIndex(rank);
+					
+					if( seedTours == null ) {
+						population[rank] = new Population( initTour , popSize , seed, distanceMatrix);
+					}
+					else {
+						population[rank] = new Population( seedTours, rank * popSize, popSize, seed, distanceMatrix);
+					}
+					
+					geneticAlgorithm[rank] = new GeneticAlgorithm(population[rank], popSize, N, config.newRandom(seed), distanceMatrix, config);
+					
+				}
+				
+			} );
+			
+			// with time= the rest of the budget is split evenly over the epochs
+			workStart = System.currentTimeMillis();
+			workEnd = jobStart + (long) (config.getTimeLimit() * (1 - FINISH_SHARE));
+			
 			// outer loop mentions internode migration
-			// inner loop mentions intranode migration
+			// inner loop, in every island, mentions intranode migration
 			for(int outerIter = interMigaration; outerIter > 0; outerIter--) {
-			
-				for( int iter = 0; iter < intraMigaration; iter++ ) {
 				
-					// run genetic algorithm in all cores independently
-					parallelFor(0,3).exec( new Loop() {
+				final int done = interMigaration - outerIter;
 				
-						int seed;
-						int rank;
-						int beforeRank;
+				// run genetic algorithm in all islands independently, an
+				// island passes its migrants through the mailbox of its
+				// neighbor and never waits for it
+				parallelFor(0, islands - 1).exec( new Loop() {
 				
-						// initialize the core
-						public void start( ) {
-					
-							// rank of this core
-							rank = rank();
-							
-							// rank of neighbor core
-							beforeRank = rank -1;
-							if( beforeRank == -1 ) {
-								beforeRank = 3;
-							}
-					
-							// seed for this core 
-							seed = taskRank * 4 + rank;
+					// run all the epochs of one island
+					public void run(int rank) throws Exception {
 						
-							 // initialize for first time
-							if( times == 0 ) {
-							
-								population[rank] = new Population( initTour , popSize , seed);
-							
-								geneticAlgorithm[rank] = new GeneticAlgorithm(population[rank], popSize, N, seed, threadSize);
+						GeneticAlgorithm island = geneticAlgorithm[rank];
+						GeneticAlgorithm neighbor = geneticAlgorithm[rank == 0 ? islands - 1 : rank - 1];
+						
+						for( int iter = 0; iter < intraMigaration; iter++ ) {
 							
+							// with time= the epoch ends at its deadline instead of after interGA generations
+							if( config.hasTimeLimit() ) {
+								island.setDeadline(epochDeadline(done * intraMigaration + iter + 1));
+								island.run(Integer.MAX_VALUE);
 							}
 							else {
-							
-							}
-											
-						}
-
-						// run threads in each core
-						// run genetic algorithm
-						public void run(int args) throws Exception {
-							
-							if( !nodeMigrationReceive.isEmpty() ) {
-								geneticAlgorithm[rank].storeNodeMigrate(nodeMigrationReceive);
+								island.run(interGA);
 							}
 							
-							geneticAlgorithm[rank].run(interGA);
+							// send best results for migration to the neighbor island
+							island.processMigrate(neighbor);
 							
-							// store best results for migration
-							geneticAlgorithm[rank].processMigrate( geneticAlgorithm[beforeRank] );
+							// no more epochs in this step if the island has converged
+							if( island.isConverged() || island.isTargetReached() ) {
+								break;
+							}
 							
-					
 						}
-					
-				
-				
-					} );
-				
-					if( times == 0 ) {
-						times++;
-					}
-					
-
-					if( !nodeMigrationReceive.isEmpty() ) {
-						nodeMigrationReceive.clear();
+						
 					}
-			
-				}
+				
+				} );
 				
 				nodeMigrationSend.clear();
-				nodeMigrationReceive.clear();
 				
 				addToNodeMigrationSend();
 				
-				if( outerIter == 1 ) {
+				// all the nodes stop at the same step, so no node waits for a migration
+				boolean stop = outerIter == 1;
+				if( !stop && config.hasConvergence() ) {
+					stop = agreeToStop(outerIter);
+				}
+				
+				if( stop ) {
 					
 					// final results sent to front end
 					Tour bestTour = nodeMigrationSend.get(0);
-					bestTour.calculateDistance();
+					bestTour.calculateDistance(distanceMatrix);
+					LocalSearch polish = config.newPolish(distanceMatrix);
+					if( polish != null ) {
+						bestTour.improve(polish);
+					}
 					Double bestDistance = bestTour.getEucDistance();
 					putTuple( new EndTuple(bestTour,bestDistance));
+					break;
 					
 				}
 				else {
@@ -292,12 +334,120 @@ public class SmpTSPGA extends Job {
 				
 					tourTuple = takeTuple(templete);
 					nodeMigrationReceive = tourTuple.storeInNodeMirgationReceive(nodeMigrationReceive);
+					
+					// every island takes the migrants at the start of its next epoch
+					for( int i = 0; i < islands; i++ ) {
+						geneticAlgorithm[i].storeNodeMigrate(nodeMigrationReceive);
+					}
+					nodeMigrationReceive.clear();
 				}
 				
 			}
 			
 		}
 		
+		/**
+		 * builds the first tours of all the islands of this node with the
+		 * seeding chosen in the options, one tour per loop index, so the
+		 * tours are built in parallel across the individuals
+		 */
+		private void buildSeedTours() throws Exception {
+			
+			seedTours = new Tour[islands * popSize];
+			
+			parallelFor(0, seedTours.length - 1).exec( new Loop() {
+				
+				TourSeeding seeding;
+				
+				// every thread builds with its own scratch arrays
+				public void start() {
+					seeding = config.newSeeding(cityTable, distanceMatrix);
+				}
+				
+				// build one tour from its own random stream
+				public void run(int i) {
+					int index = islandIndex(i / popSize) * popSize + i % popSize;
+					int[] path = new int[N];
+					seeding.build(index, path, config.newSeedingRandom(index));
+					Tour tour = new Tour(path);
+					tour.calculateDistance(distanceMatrix);
+					seedTours[i] = tour;
+				}
+				
+			} );
+			
+		}
+		
+		/**
+		 * End of an epoch with time=. The time from workStart to workEnd
+		 * is split evenly over all the epochs of the job.
+		 * 
+		 * @param epoch number of the epoch, from 1
+		 * @return wall clock time the epoch ends at
+		 */
+		private long epochDeadline(int epoch) {
+			return workStart + (workEnd - workStart) * epoch / (interMigaration * intraMigaration);
+		}
+		
+		/**
+		 * Index of an island over all the nodes. The islands of all the
+		 * nodes are interleaved, so the indices do not collide even if
+		 * the nodes have different numbers of islands.
+		 * 
+		 * @param rank index of the island in this node
+		 * @return index of the island over all the nodes
+		 */
+		private int islandIndex(int rank) {
+			return rank * workerSize + taskRank;
+		}
+		
+		/**
+		 * Sends the state of this node to all the nodes and reads the
+		 * state of all the nodes. All the nodes get the same answer.
+		 * 
+		 * @param step iteration number of the outer loop
+		 * @return true if a node reached the target or all the nodes
+		 * have converged
+		 */
+		private boolean agreeToStop(int step) throws Exception {
+			
+			putTuple(workerSize, new StatusTuple(taskRank, step, isConverged(), isTargetReached()));
+			
+			boolean allConverged = true;
+			boolean targetReached = false;
+			StatusTuple template = new StatusTuple();
+			template.step = step;
+			for( int rank = 0; rank < workerSize; rank++ ) {
+				template.taskRank = rank;
+				StatusTuple status = takeTuple(template);
+				allConverged = allConverged && status.converged;
+				targetReached = targetReached || status.targetReached;
+			}
+			
+			return allConverged || targetReached;
+			
+		}
+		
+		// checks if all the islands of this node have converged
+		private boolean isConverged() {
+			for( int i = 0; i < geneticAlgorithm.length; i++ ) {
+				if( !geneticAlgorithm[i].isConverged() ) {
+					return false;
+				}
+			}
+			return true;
+		}
+		
+		// checks if an island of this node has reached the target length
+		private boolean isTargetReached() {
+			for( int i = 0; i < geneticAlgorithm.length; i++ ) {
+				if( geneticAlgorithm[i].isTargetReached() ) {
+					return true;
+				}
+			}
+			return false;
+		}
+		
 		/**
 		 * get the best tours in a node for internode migration
 		 */
@@ -403,6 +553,83 @@ public class SmpTSPGA extends Job {
 		
 	}
 	
+	/**
+	 * Class StatusTuple extends Tuple to tell all the nodes if a node
+	 * can stop. Every node puts one copy for each node at the end of an
+	 * outer iteration.
+	 * 
+	 * @author Satyajeet Shahane, Ajeeth Kannan
+	 * 
+	 */
+	private static class StatusTuple extends Tuple {
+
+		int taskRank;
+		int step;
+		boolean converged;
+		boolean targetReached;
+		
+		// empty constructor
+		public StatusTuple() {
+			
+		}
+		
+		/**
+		 * parameterized constructor
+		 * 
+		 * @param taskRank taskRank of the node
+		 * @param step iteration number
+		 * @param converged true if all the islands of the node have converged
+		 * @param targetReached true if an island of the node reached the target
+		 */
+		public StatusTuple( int taskRank, int step, boolean converged, boolean targetReached ) {
+			this.taskRank = taskRank;
+			this.step = step;
+			this.converged = converged;
+			this.targetReached = targetReached;
+		}
+		
+		/**
+		 * overrides matchContent() of Tuple
+		 * 
+		 * @param target to be matched with this tuple
+		 */
+		public boolean matchContent(Tuple target) {
+			StatusTuple statusTuple = (StatusTuple) target;
+			return this.taskRank == statusTuple.taskRank && this.step == statusTuple.step;
+		}
+		
+		/**
+		 * readIn() method declared in Interface edu.rit.io.Streamable
+		 *
+		 * Gets value for the hidden data members.
+		 * 
+		 * @exception IOException is called to indicate that an object
+		 * could not be or should not be read.
+		 */
+		public void readIn(InStream inStream) throws IOException {
+			taskRank = inStream.readInt();
+			step = inStream.readInt();
+			converged = inStream.readBoolean();
+			targetReached = inStream.readBoolean();
+		}
+
+		/**
+		 * writeOut() method declared in Interface edu.rit.io.Streamable
+		 * 
+		 * hidden data members are sent through tuple.
+		 * 
+		 * exception IOException is called to indicate that an object
+		 * could not be or should not be written.
+		 */
+		public void writeOut(OutStream outStream) throws IOException {
+			outStream.writeInt(taskRank);
+			outStream.writeInt(step);
+			outStream.writeBoolean(converged);
+			outStream.writeBoolean(targetReached);
+		}
+		
+	}
+	
 	/**
 	 * Class EndTuple extends Tuple to send final best tour in tuple space. 
 	 * The class also reduces best tour out of all nodes
@@ -485,24 +712,22 @@ public class SmpTSPGA extends Job {
 		 */
 		public void display(String[] string) {
 			
-			int first = 0;
+			int path[]  = finalTour.getPath();
 			
-			ArrayList<City> individualList  = finalTour.getIndividualList();
-			System.out.println(finalTour.getTourString());
-			
-			for( int i = 0; i < individualList.size(); i++ ) {
-				for( int j = 0; j < string.length; j++ ) {
-					if( individualList.get(i).pointString().equals(string[j]) ) {
-						if( i == 0 ) {
-							first = j;
-						}
-						System.out.print(j);
-						System.out.print(" -> ");
-						break;
-					}
+			// string[j] is the point of city j
+			for( int i = 0; i < path.length; i++ ) {
+				if( i > 0 ) {
+					System.out.print(",");
 				}
+				System.out.print(string[path[i]]);
+			}
+			System.out.printf ("\n");
+			
+			for( int i = 0; i < path.length; i++ ) {
+				System.out.print(path[i]);
+				System.out.print(" -> ");
 			}
-			System.out.print(first);
+			System.out.print(path[0]);
 			System.out.printf ("\n");
 			System.out.printf ("%.5g", finalDist);
 			System.out.printf ("\n");
@@ -0,0 +1,192 @@
+/**
+ * Class SteadyPopulation stores the population of the steady state
+ * engine. As in FlatPopulation all the tours are kept one after another
+ * in one int array, tour i is genes[i*N .. i*N+N-1], and never move.
+ *
+ * The tours are ordered in a binary max-heap by length, so the worst
+ * tour is always at the top. A child that is better than the worst tour
+ * and not a duplicate is copied over the worst tour in place and the
+ * heap is repaired in O(log n), no sorting is done.
+ *
+ * @author Satyajeet Shahane, Ajeeth Kannan
+ */
+public class SteadyPopulation {
+
+	private final int N; // number of cities in a tour
+	private final int[] genes; // all the tours
+	private final double[] lengths; // euclidean distance of each tour
+	private final long[] hashes; // hash of each tour
+	private final int[] heap; // tour indices, longest tour first
+	private final LongHashSet hashSet; // hashes of the tours
+	private int size; // number of tours
+	private int best; // index of the shortest tour
+
+	/**
+	 * Parameterized constructor
+	 *
+	 * @param capacity maximum number of tours
+	 * @param N number of cities in a tour
+	 */
+	public SteadyPopulation(int capacity, int N) {
+		this.N = N;
+		genes = new int[capacity * N];
+		lengths = new double[capacity];
+		hashes = new long[capacity];
+		heap = new int[capacity];
+		hashSet = new LongHashSet(capacity);
+	}
+
+	/**
+	 * removes all the tours, the arrays are kept for reuse
+	 */
+	public void clear() {
+		size = 0;
+		best = 0;
+		hashSet.clear();
+	}
+
+	/**
+	 * copies a tour into this population if it is not a duplicate and
+	 * there is space left
+	 *
+	 * @param path array holding the tour
+	 * @param off offset of the tour in path
+	 * @param length euclidean distance of the tour
+	 * @param hash hash of the tour
+	 * @return true if the tour was added
+	 */
+	public boolean add(int[] path, int off, double length, long hash) {
+		if (size == lengths.length || !hashSet.add(hash)) {
+			return false;
+		}
+		System.arraycopy(path, off, genes, size * N, N);
+		lengths[size] = length;
+		hashes[size] = hash;
+		if (size == 0 || length < lengths[best]) {
+			best = size;
+		}
+		heap[size] = size;
+		siftUp(size);
+		size++;
+		return true;
+	}
+
+	/**
+	 * Copies a tour over the worst tour, if it is shorter than the worst
+	 * tour and not a duplicate.
+	 *
+	 * @param path array holding the tour
+	 * @param off offset of the tour in path
+	 * @param length euclidean distance of the tour
+	 * @param hash hash of the tour
+	 * @return true if the tour replaced the worst tour
+	 */
+	public boolean replaceWorst(int[] path, int off, double length, long hash) {
+		if (size == 0) {
+			return false;
+		}
+		int worst = heap[0];
+		if (length >= lengths[worst] || hashSet.contains(hash)) {
+			return false;
+		}
+		hashSet.remove(hashes[worst]);
+		hashSet.add(hash);
+		System.arraycopy(path, off, genes, worst * N, N);
+		lengths[worst] = length;
+		hashes[worst] = hash;
+		if (length < lengths[best]) {
+			best = worst;
+		}
+		siftDown(0);
+		return true;
+	}
+
+	/**
+	 * Indices of the tours sorted by length, shortest first. Used only
+	 * when the population is stored back into tours, so a plain
+	 * insertion sort is enough.
+	 *
+	 * @param order array to fill, at least size() long
+	 */
+	public void sort(int[] order) {
+		for (int i = 0; i < size; i++) {
+			int index = i;
+			int j = i - 1;
+			while (j >= 0 && lengths[order[j]] > lengths[index]) {
+				order[j + 1] = order[j];
+				j--;
+			}
+			order[j + 1] = index;
+		}
+	}
+
+	// moves heap[i] up while it is longer than its parent
+	private void siftUp(int i) {
+		int index = heap[i];
+		while (i > 0) {
+			int parent = (i - 1) >>> 1;
+			if (lengths[heap[parent]] >= lengths[index]) {
+				break;
+			}
+			heap[i] = heap[parent];
+			i = parent;
+		}
+		heap[i] = index;
+	}
+
+	// moves heap[i] down while one of its children is longer
+	private void siftDown(int i) {
+		int index = heap[i];
+		while (true) {
+			int child = 2 * i + 1;
+			if (child >= size) {
+				break;
+			}
+			if (child + 1 < size && lengths[heap[child + 1]] > lengths[heap[child]]) {
+				child++;
+			}
+			if (lengths[heap[child]] <= lengths[index]) {
+				break;
+			}
+			heap[i] = heap[child];
+			i = child;
+		}
+		heap[i] = index;
+	}
+
+	// index of the longest tour
+	public int worst() {
+		return heap[0];
+	}
+
+	// index of the shortest tour
+	public int best() {
+		return best;
+	}
+
+	// offset of a tour in getGenes()
+	public int offset(int index) {
+		return index * N;
+	}
+
+	// getter for genes
+	public int[] getGenes() {
+		return genes;
+	}
+
+	// number of tours
+	public int size() {
+		return size;
+	}
+
+	// getter for the length of a tour
+	public double getLength(int index) {
+		return lengths[index];
+	}
+
+	// getter for the hash of a tour
+	public long getHash(int index) {
+		return hashes[index];
+	}
+
+}
@@ -0,0 +1,34 @@
+import edu.rit.util.Random;
+
+/**
+ * Class SwapMutation swaps the cities at two random positions.
+ *
+ * @author Satyajeet Shahane, Ajeeth Kannan
+ */
+public class SwapMutation implements MutationOperator {
+
+	private int N; // number of cities
+	private DistanceMatrix distanceMatrix; // distance between every pair of cities
+
+	/**
+	 * Parameterized constructor
+	 *
+	 * @param distanceMatrix distance between every pair of cities
+	 */
+	public SwapMutation(DistanceMatrix distanceMatrix) {
+		this.distanceMatrix = distanceMatrix;
+		N = distanceMatrix.size();
+	}
+
+	/**
+	 * mutate() declared in Interface MutationOperator
+	 */
+	public double mutate(int[] path, int off, Random random) {
+		int cPoint1 = random.nextInt(N);
+		int cPoint2 = random.nextInt(N);
+		double delta = Tour.swapDelta(path, off, N, cPoint1, cPoint2, distanceMatrix);
+		Tour.swap(path, off, cPoint1, cPoint2);
+		return delta;
+	}
+
+}
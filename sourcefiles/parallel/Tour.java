@@ -1,35 +1,37 @@
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Random;
 import edu.rit.io.InStream;
 import edu.rit.io.OutStream;
 import edu.rit.pj2.Tuple;
-import edu.rit.util.AList;
 
 /**
  * The tour class maintains a tour for the given input cities.
- * Combining a list of cities would form a tour. 
- * 
- * A city can be added into a tour using addCity(). Euclidean
- * distance of a tour can be calculated using calculateDistance(). 
- * 
+ * A tour is a permutation of city indices into the shared CityTable,
+ * so copying a tour only copies an int array.
+ *
+ * Euclidean distance of a tour can be calculated using
+ * calculateDistance(). The distance is cached in the tour, swap(),
+ * reverse() and moveSegment() update it from the few edges they change.
+ *
+ * Every tour also keeps a 64 bit hash of its edges, the xor of a key
+ * for each edge (Zobrist hashing). An edge has the same key in both
+ * directions, so the hash is the same for a cycle whatever city it starts
+ * at and whichever way it is walked. A move only xors out and xors in
+ * the edges it changes.
+ *
  * This class also extends Tuple. A Tuple class should have readIn()
  * and writeOut() methods.
- * 
+ *
  * @author Satyajeet Shahane, Ajeeth Kannan
  */
 public class Tour extends Tuple {
 
-	// list of cities.
-	private ArrayList<City> individualList = new ArrayList<City>();
-	
-	// list of cities.
-	// AList used while sending through tuple space.
-	private AList<City> list = new AList<City>();
-	
-	private String tourString = ""; // Total tour as a string for output
-	
+	// indices of the cities in the order they are visited.
+	private int[] path = new int[0];
+
+	private String tourString; // Total tour as a string, made only when asked for
+
+	private long hash; // xor of the keys of all the edges
 	private double eucDistance; // Euclidean distance of a tour
 	private double fitnessVlaue; // Fitness value of a tour
 	private double probabilityValue; // Probability value of a tour
@@ -39,126 +41,406 @@ public class Tour extends Tuple {
 	public Tour() {
 	}
 
+	/**
+	 * Tour visiting the cities in the order they are in CityTable.
+	 *
+	 * @param size number of cities in the tour
+	 */
+	public Tour(int size) {
+		path = new int[size];
+		for (int i = 0; i < size; i++) {
+			path[i] = i;
+		}
+		hash = hash(path, 0, size);
+	}
+
+	/**
+	 * @param path city indices of the tour. The array is used as it is.
+	 */
+	public Tour(int[] path) {
+		this.path = path;
+		hash = hash(path, 0, path.length);
+	}
+
+	/**
+	 * @param path city indices of the tour. The array is used as it is.
+	 * @param eucDistance euclidean distance of the tour
+	 * @param hash hash of the tour
+	 */
+	public Tour(int[] path, double eucDistance, long hash) {
+		this.path = path;
+		this.eucDistance = eucDistance;
+		this.hash = hash;
+	}
+
 	/**
 	 * @param tour will be copied to this tour.
 	 */
 	public Tour(Tour tour) {
-		// adding each cities into this tour.
-		ArrayList<City> tempList = tour.individualList;
-		for (int i = 0; i < tempList.size(); i++) {
-			addCity(tempList.get(i));
-		}
+		this.path = tour.path.clone();
+		this.hash = tour.hash;
 		this.eucDistance = tour.eucDistance;
 		this.fitnessVlaue = tour.fitnessVlaue;
 		this.probabilityValue = tour.probabilityValue;
 		this.samplingValue = tour.samplingValue;
 	}
 
+	/**
+	 * Overwrites this tour with a tour of the same size kept in another
+	 * array, the path array of this tour is reused.
+	 *
+	 * @param source array holding the tour
+	 * @param off offset of the tour in source
+	 * @param eucDistance euclidean distance of the tour
+	 * @param hash hash of the tour
+	 */
+	public void setPath(int[] source, int off, double eucDistance, long hash) {
+		System.arraycopy(source, off, path, 0, path.length);
+		this.eucDistance = eucDistance;
+		this.hash = hash;
+		tourString = null;
+	}
+
 	/*
-	 * calls Collections.shuffle()
+	 * shuffles the cities, same algorithm as Collections.shuffle()
 	 */
 	public void Shuffle(Random random) {
-		Collections.shuffle(individualList, random);
-		tourString();
+		for (int i = path.length; i > 1; i--) {
+			int j = random.nextInt(i);
+			int temp = path[i - 1];
+			path[i - 1] = path[j];
+			path[j] = temp;
+		}
+		hash = hash(path, 0, path.length);
+		tourString = null;
+	}
+
+	/**
+	 * Calculating euclidean distance of a tour.
+	 *
+	 * @param distanceMatrix distance between every pair of cities
+	 */
+	public void calculateDistance(DistanceMatrix distanceMatrix) {
+
+		eucDistance = 0;
+
+		for (int i = 1; i < path.length; i++) {
+			eucDistance = eucDistance + distanceMatrix.distance(path[i - 1], path[i]);
+		}
+		if (path.length > 0) {
+			eucDistance = eucDistance + distanceMatrix.distance(path[path.length - 1], path[0]);
+		}
+
 	}
 
 	/**
-	 * 
-	 * add a city into the individualList.
-	 * 
-	 * @param city
+	 * swaps the cites in the given two position. The cached distance
+	 * is updated from the edges around the two positions.
+	 *
+	 * @param point1 position of a city in path
+	 * @param point2 position of a city in path
+	 * @param distanceMatrix distance between every pair of cities
+	 * @return this instance
 	 */
-	public void addCity(City city) {
-		individualList.add(city);
-		if (tourString.equals(""))
-			tourString = city.getX() + " " + city.getY();
-		else
-			tourString = tourString + "," + city.getX() + " " + city.getY();
+	public Tour swap(int point1, int point2, DistanceMatrix distanceMatrix)
+	{
+		eucDistance = eucDistance + swapDelta(path, 0, path.length, point1, point2, distanceMatrix);
+		hash = hash ^ swapEdgesHash(path, 0, path.length, point1, point2);
+		swap(path, 0, point1, point2);
+		hash = hash ^ swapEdgesHash(path, 0, path.length, point1, point2);
+		tourString = null;
+		return this;
+	}
 
+	/**
+	 * reverses the cities from position i to position j (2-opt move).
+	 * The cached distance is updated from the two changed edges.
+	 *
+	 * @param i first position of the segment
+	 * @param j last position of the segment, i <= j
+	 * @param distanceMatrix distance between every pair of cities
+	 * @return this instance
+	 */
+	public Tour reverse(int i, int j, DistanceMatrix distanceMatrix) {
+		eucDistance = eucDistance + reverseDelta(path, 0, path.length, i, j, distanceMatrix);
+		hash = hash ^ reverseHash(path, 0, path.length, i, j);
+		reverse(path, 0, i, j);
+		tourString = null;
+		return this;
 	}
 
 	/**
-	 * Make the whole tour as a string for output.
+	 * moves the cities from position i to position j so that they
+	 * follow the city at position k. The cached distance is updated
+	 * from the three changed edges.
+	 *
+	 * @param i first position of the segment
+	 * @param j last position of the segment, i <= j
+	 * @param k position outside the segment, not the one before i
+	 * @param distanceMatrix distance between every pair of cities
+	 * @return this instance
 	 */
-	private void tourString() {
-		tourString = "";
-		for (int i = 0; i < individualList.size(); i++) {
-			City city = individualList.get(i);
-			if (tourString.equals(""))
-				tourString = city.getX() + " " + city.getY();
-			else
-				tourString = tourString + "," + city.getX() + " " + city.getY();
-		}
+	public Tour moveSegment(int i, int j, int k, DistanceMatrix distanceMatrix) {
+		eucDistance = eucDistance + moveSegmentDelta(path, 0, path.length, i, j, k, distanceMatrix);
+		hash = hash ^ moveSegmentHash(path, 0, path.length, i, j, k);
+		moveSegment(path, 0, i, j, k);
+		tourString = null;
+		return this;
 	}
 
 	/**
-	 * Calculating euclidean distance of a tour.
+	 * improves this tour with a local search. The cached distance is
+	 * updated from the change the local search reports, the hash is
+	 * computed again.
+	 *
+	 * @param localSearch local search to apply
+	 * @return this instance
 	 */
-	public void calculateDistance() {
+	public Tour improve(LocalSearch localSearch) {
+		eucDistance = eucDistance + localSearch.improve(path, 0);
+		hash = hash(path, 0, path.length);
+		tourString = null;
+		return this;
+	}
 
-		eucDistance = 0;
-		
-		double distance;
-		int x1, y1, x2, y2;
-		City city1, city2;
-		int xSub, ySub;
-
-		for (int i = 1; i <= individualList.size(); i++) {
-			
-			if( i == individualList.size() ) {
-				city1 = individualList.get(i-1);
-				city2 = individualList.get(0);
-			}
-			else {
-				city1 = individualList.get(i - 1);
-				city2 = individualList.get(i);
-			}
+	// change in distance if swap() is called
+	public double swapDelta(int i, int j, DistanceMatrix distanceMatrix) {
+		return swapDelta(path, 0, path.length, i, j, distanceMatrix);
+	}
+
+	// change in distance if reverse() is called
+	public double reverseDelta(int i, int j, DistanceMatrix distanceMatrix) {
+		return reverseDelta(path, 0, path.length, i, j, distanceMatrix);
+	}
+
+	// change in distance if moveSegment() is called
+	public double moveSegmentDelta(int i, int j, int k, DistanceMatrix distanceMatrix) {
+		return moveSegmentDelta(path, 0, path.length, i, j, k, distanceMatrix);
+	}
+
+	/**
+	 * Change in the length of the tour stored at path[off..off+n-1]
+	 * if the cities at position i and j are swapped. Only the (at most
+	 * four) edges next to the two positions are looked at.
+	 *
+	 * @return new length minus old length
+	 */
+	public static double swapDelta(int[] path, int off, int n, int i, int j, DistanceMatrix distanceMatrix) {
+		if (i == j) {
+			return 0;
+		}
+		int e1 = (i - 1 + n) % n;
+		int e2 = i;
+		int e3 = (j - 1 + n) % n;
+		int e4 = j;
+		double delta = swapEdgeDelta(path, off, n, i, j, e1, distanceMatrix)
+				+ swapEdgeDelta(path, off, n, i, j, e2, distanceMatrix);
+		if (e3 != e1 && e3 != e2) {
+			delta = delta + swapEdgeDelta(path, off, n, i, j, e3, distanceMatrix);
+		}
+		if (e4 != e1 && e4 != e2) {
+			delta = delta + swapEdgeDelta(path, off, n, i, j, e4, distanceMatrix);
+		}
+		return delta;
+	}
 
-			x1 = city1.getX();
-			y1 = city1.getY();
+	// change of the edge from position e to e+1 when i and j are swapped
+	private static double swapEdgeDelta(int[] path, int off, int n, int i, int j, int e, DistanceMatrix distanceMatrix) {
+		int f = e + 1 == n ? 0 : e + 1;
+		int a = path[off + e];
+		int b = path[off + f];
+		int a2 = e == i ? path[off + j] : e == j ? path[off + i] : a;
+		int b2 = f == i ? path[off + j] : f == j ? path[off + i] : b;
+		return distanceMatrix.distance(a2, b2) - distanceMatrix.distance(a, b);
+	}
 
-			x2 = city2.getX();
-			y2 = city2.getY();
+	/**
+	 * Change in the length of the tour stored at path[off..off+n-1]
+	 * if the cities from position i to j are reversed.
+	 *
+	 * @return new length minus old length
+	 */
+	public static double reverseDelta(int[] path, int off, int n, int i, int j, DistanceMatrix distanceMatrix) {
+		if (i == j || (i == 0 && j == n - 1)) {
+			return 0;
+		}
+		int before = path[off + (i == 0 ? n - 1 : i - 1)];
+		int after = path[off + (j == n - 1 ? 0 : j + 1)];
+		int first = path[off + i];
+		int last = path[off + j];
+		return distanceMatrix.distance(before, last) + distanceMatrix.distance(first, after)
+				- distanceMatrix.distance(before, first) - distanceMatrix.distance(last, after);
+	}
 
-			xSub = x1 - x2;
-			ySub = y1 - y2;
+	/**
+	 * Change in the length of the tour stored at path[off..off+n-1]
+	 * if the cities from position i to j are moved to follow the city
+	 * at position k.
+	 *
+	 * @return new length minus old length
+	 */
+	public static double moveSegmentDelta(int[] path, int off, int n, int i, int j, int k, DistanceMatrix distanceMatrix) {
+		int before = path[off + (i == 0 ? n - 1 : i - 1)];
+		int after = path[off + (j == n - 1 ? 0 : j + 1)];
+		int first = path[off + i];
+		int last = path[off + j];
+		int c1 = path[off + k];
+		int c2 = path[off + (k == n - 1 ? 0 : k + 1)];
+		return distanceMatrix.distance(before, after) + distanceMatrix.distance(c1, first) + distanceMatrix.distance(last, c2)
+				- distanceMatrix.distance(before, first) - distanceMatrix.distance(last, after) - distanceMatrix.distance(c1, c2);
+	}
 
-			distance = Math.sqrt((xSub * xSub) + (ySub * ySub));
+	/**
+	 * Key of the edge between two cities, the same in both directions.
+	 * The key is a 64 bit mix (splitmix64) of the two cities, so no table
+	 * of random keys is needed.
+	 */
+	public static long edgeKey(int city1, int city2) {
+		int low = Math.min(city1, city2);
+		int high = Math.max(city1, city2);
+		long z = ((long) low << 32) | high;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * Hash of the tour stored at path[off..off+n-1], the xor of the
+	 * keys of all its edges. It does not depend on the starting city or
+	 * on the direction of the tour.
+	 */
+	public static long hash(int[] path, int off, int n) {
+		return rangeHash(path, off, n, 0, n);
+	}
 
-			eucDistance = eucDistance + distance;
+	// xor of the keys of count edges starting with the edge at position from
+	private static long rangeHash(int[] path, int off, int n, int from, int count) {
+		long h = 0;
+		int e = from;
+		for (int l = 0; l < count; l++) {
+			int f = e + 1 == n ? 0 : e + 1;
+			h = h ^ edgeKey(path[off + e], path[off + f]);
+			e = f;
+		}
+		return h;
+	}
 
+	// xor of the keys of the edges next to position i and j
+	private static long swapEdgesHash(int[] path, int off, int n, int i, int j) {
+		if (i == j) {
+			return 0;
+		}
+		int e1 = (i - 1 + n) % n;
+		int e2 = i;
+		int e3 = (j - 1 + n) % n;
+		int e4 = j;
+		long h = rangeHash(path, off, n, e1, 1) ^ rangeHash(path, off, n, e2, 1);
+		if (e3 != e1 && e3 != e2) {
+			h = h ^ rangeHash(path, off, n, e3, 1);
 		}
+		if (e4 != e1 && e4 != e2) {
+			h = h ^ rangeHash(path, off, n, e4, 1);
+		}
+		return h;
+	}
+
+	// change of the hash when reverse() is called, only the two end edges change
+	private static long reverseHash(int[] path, int off, int n, int i, int j) {
+		if (i == j || (i == 0 && j == n - 1)) {
+			return 0;
+		}
+		int before = path[off + (i == 0 ? n - 1 : i - 1)];
+		int after = path[off + (j == n - 1 ? 0 : j + 1)];
+		int first = path[off + i];
+		int last = path[off + j];
+		return edgeKey(before, first) ^ edgeKey(last, after)
+				^ edgeKey(before, last) ^ edgeKey(first, after);
+	}
+
+	// change of the hash when moveSegment() is called
+	private static long moveSegmentHash(int[] path, int off, int n, int i, int j, int k) {
+		int before = path[off + (i == 0 ? n - 1 : i - 1)];
+		int after = path[off + (j == n - 1 ? 0 : j + 1)];
+		int first = path[off + i];
+		int last = path[off + j];
+		int c1 = path[off + k];
+		int c2 = path[off + (k == n - 1 ? 0 : k + 1)];
+		return edgeKey(before, first) ^ edgeKey(last, after) ^ edgeKey(c1, c2)
+				^ edgeKey(before, after) ^ edgeKey(c1, first) ^ edgeKey(last, c2);
+	}
 
+	// swaps path[off+i] and path[off+j]
+	public static void swap(int[] path, int off, int i, int j) {
+		int temp = path[off + i];
+		path[off + i] = path[off + j];
+		path[off + j] = temp;
 	}
-	
+
+	// reverses path[off+i..off+j]
+	public static void reverse(int[] path, int off, int i, int j) {
+		for (int l = off + i, r = off + j; l < r; l++, r--) {
+			int temp = path[l];
+			path[l] = path[r];
+			path[r] = temp;
+		}
+	}
+
 	/**
-	 * swaps the cites in the given two position
-	 * 
-	 * @param point1 position of a city in individualList
-	 * @param point2 position of a city in individualList
-	 * @return this instance 
+	 * moves path[off+i..off+j] to follow path[off+k]. k is outside
+	 * the segment and is not the position before i.
 	 */
-	public Tour swap(int point1,int point2)
-	{
-		City temp = individualList.get(point1);
-		individualList.set(point1, individualList.get(point2));
-		individualList.set(point2, temp);
-		tourString();
-		return this;
+	public static void moveSegment(int[] path, int off, int i, int j, int k) {
+		if (k > j) {
+			// segment goes to the end of i..k
+			reverse(path, off, i, j);
+			reverse(path, off, j + 1, k);
+			reverse(path, off, i, k);
+		}
+		else {
+			// segment goes to the start of k+1..j
+			reverse(path, off, k + 1, i - 1);
+			reverse(path, off, i, j);
+			reverse(path, off, k + 1, j);
+		}
 	}
-	
-	// getter for individualList size
+
+	// getter for the number of cities
 	public int getTourSize() {
-		return individualList.size();
+		return path.length;
+	}
+
+	// getter for the city at a position
+	public int getCity(int position) {
+		return path[position];
+	}
+
+	// getter for path
+	public int[] getPath() {
+		return path;
 	}
 
-	// getter for individualList 
-	public ArrayList<City> getIndividualList() {
-		return individualList;
+	// getter for hash
+	public long getHash() {
+		return hash;
 	}
 
-	// getter for tourString
+	/**
+	 * Make the whole tour as a string of city indices. The string is
+	 * made on the first call after the tour has changed.
+	 *
+	 * @return tour as a string
+	 */
 	public String getTourString() {
+		if (tourString == null) {
+			StringBuilder builder = new StringBuilder(path.length * 4);
+			for (int i = 0; i < path.length; i++) {
+				if (i > 0) {
+					builder.append(',');
+				}
+				builder.append(path[i]);
+			}
+			tourString = builder.toString();
+		}
 		return tourString;
 	}
 
@@ -166,31 +448,21 @@ public class Tour extends Tuple {
 	public int getSamplingValue() {
 		return samplingValue;
 	}
-	
+
 	// getter for eucDistance
 	public double getEucDistance() {
 		return eucDistance;
 	}
-	
+
 	// getter for fitnessVlaue
 	public Double getFitnessValue() {
 		return fitnessVlaue;
 	}
-	
+
 	// getter for probabilityValue
 	public double getProbabilityValue() {
 		return probabilityValue;
 	}
-	
-	// setter for tourString
-	public void setTourStrig(String tourString) {
-		this.tourString = tourString;
-	}
-
-	// setter for individualList
-	public void setIndividualList(ArrayList<City> individualList) {
-		this.individualList = individualList;
-	}
 
 	// setter for fitnessValue
 	public void setFitnessValue(double fitnessValue) {
@@ -211,49 +483,34 @@ public class Tour extends Tuple {
 	 * readIn() method declared in Interface edu.rit.io.Streamable
 	 *
 	 * Gets value for the hidden data members.
-	 * 
+	 *
 	 * @exception IOException is called to indicate that an object
 	 * could not be or should not be read.
 	 */
 	public void readIn(InStream inStream) throws IOException {
-		try {
-			list = (AList<City>) inStream.readObject();
-			tourString = inStream.readString();
-			eucDistance = inStream.readDouble();
-			fitnessVlaue = inStream.readDouble();
-			probabilityValue = inStream.readDouble();
-			samplingValue = inStream.readInt();
-			for( int i = 0; i < list.size(); i++ )
-			{
-				individualList.add(list.get(i));
-			}
-			list.clear();
-		}
-		catch(ClassCastException e) {
-			
-		}
+		path = inStream.readIntArray();
+		hash = hash(path, 0, path.length);
+		tourString = null;
+		eucDistance = inStream.readDouble();
+		fitnessVlaue = inStream.readDouble();
+		probabilityValue = inStream.readDouble();
+		samplingValue = inStream.readInt();
 	}
 
 	/**
 	 * writeOut() method declared in Interface edu.rit.io.Streamable
-	 * 
+	 *
 	 * hidden data members are sent through tuple.
-	 * 
+	 *
 	 * exception IOException is called to indicate that an object
 	 * could not be or should not be written.
 	 */
 	public void writeOut(OutStream outStream) throws IOException {
-		for( int i = 0; i < individualList.size(); i++ )
-		{
-			list.addLast( individualList.get(i) );
-		}
-		outStream.writeObject(list);
-		outStream.writeString(tourString);
+		outStream.writeIntArray(path);
 		outStream.writeDouble(eucDistance);
 		outStream.writeDouble(fitnessVlaue);
 		outStream.writeDouble(probabilityValue);
 		outStream.writeInt(samplingValue);
-		list.clear();
 	}
 
 }
@@ -0,0 +1,363 @@
+import java.util.Arrays;
+
+import edu.rit.util.Random;
+
+/**
+ * Class TourSeeding builds the tours of the first generation. Four
+ * strategies are known, chosen with the option seeding=:
+ *
+ *     random  - a random permutation of the cities
+ *     nn      - nearest neighbor from a random city, now and then taking
+ *               the second nearest city instead of the nearest one
+ *     greedy  - greedy edge matching, shortest edges first, with the
+ *               length of each edge changed by a few percent at random
+ *     hilbert - cities in the order of a Hilbert curve, the curve is
+ *               turned, mirrored and shifted at random
+ *
+ * mix gives half of the tours from nn, greedy and hilbert in turn and
+ * the other half random, so the population keeps some diversity.
+ *
+ * Every tour is built from its own random stream, so the tours can be
+ * built in parallel. An instance keeps its scratch arrays, so every
+ * thread needs its own one.
+ *
+ * @author Satyajeet Shahane, Ajeeth Kannan
+ */
+public class TourSeeding {
+
+	private static final int NEIGHBORS = 10; // candidates of each city in nn and greedy
+	private static final double SECOND_NEAREST = 0.1; // chance nn takes the second nearest city
+	private static final double NOISE = 0.05; // largest change of an edge length in greedy
+	private static final int HILBERT_BITS = 15; // co-ordinates are scaled to 0..2^15-1
+
+	private String strategy; // random|nn|greedy|hilbert|mix
+	private int N; // number of cities
+	private CityTable cityTable; // co-ordinates of the cities
+	private DistanceMatrix distanceMatrix; // distance between every pair of cities
+	private NeighborList neighborList; // nearest neighbors of every city
+	private boolean[] visited; // cities already in the tour
+	private int[] adjacent; // greedy, the two neighbors of each city, -1 if none
+	private int[] parent; // greedy, union-find forest of the fragments
+	private int[] edges; // greedy, candidate edges as pairs of cities
+	private double[] weight; // greedy, noisy length of each candidate edge
+	private int[] order; // greedy, candidate edges in order of weight
+	private long[] keys; // hilbert, curve index and city of each city
+
+	/**
+	 * Parameterized constructor
+	 *
+	 * @param strategy random, nn, greedy, hilbert or mix
+	 * @param cityTable co-ordinates of the cities
+	 * @param distanceMatrix distance between every pair of cities
+	 */
+	public TourSeeding(String strategy, CityTable cityTable, DistanceMatrix distanceMatrix) {
+		this.strategy = strategy;
+		this.cityTable = cityTable;
+		this.distanceMatrix = distanceMatrix;
+		N = distanceMatrix.size();
+		visited = new boolean[N];
+		if (!strategy.equals("random") && !strategy.equals("hilbert")) {
+			neighborList = distanceMatrix.getNeighborList(NEIGHBORS);
+		}
+		if (strategy.equals("greedy") || strategy.equals("mix")) {
+			int count = N * neighborList.size();
+			adjacent = new int[2 * N];
+			parent = new int[N];
+			edges = new int[2 * count];
+			weight = new double[count];
+			order = new int[count];
+		}
+		if (strategy.equals("hilbert") || strategy.equals("mix")) {
+			keys = new long[N];
+		}
+	}
+
+	/**
+	 * Builds one tour of the first generation.
+	 *
+	 * @param index index of the tour in the population, mix uses it to
+	 * choose the strategy
+	 * @param path filled with the cities of the tour
+	 * @param random random stream of this tour
+	 */
+	public void build(int index, int[] path, Random random) {
+		String use = strategy;
+		if (use.equals("mix")) {
+			use = index % 2 == 1 ? "random" : index % 6 == 0 ? "nn" : index % 6 == 2 ? "greedy" : "hilbert";
+		}
+		if (N < 4 || use.equals("random")) {
+			randomTour(path, random);
+		}
+		else if (use.equals("nn")) {
+			nearestNeighbor(path, random);
+		}
+		else if (use.equals("greedy")) {
+			greedyEdge(path, random);
+		}
+		else {
+			hilbert(path, random);
+		}
+	}
+
+	// random permutation of the cities
+	private void randomTour(int[] path, Random random) {
+		for (int i = 0; i < N; i++) {
+			path[i] = i;
+		}
+		for (int i = N; i > 1; i--) {
+			int j = random.nextInt(i);
+			int temp = path[i - 1];
+			path[i - 1] = path[j];
+			path[j] = temp;
+		}
+	}
+
+	// randomized nearest neighbor tour
+	private void nearestNeighbor(int[] path, Random random) {
+		Arrays.fill(visited, false);
+		int city = random.nextInt(N);
+		path[0] = city;
+		visited[city] = true;
+		for (int i = 1; i < N; i++) {
+			int skip = random.nextDouble() < SECOND_NEAREST ? 1 : 0;
+			int next = -1;
+			for (int k = 0; k < neighborList.size(); k++) {
+				int c = neighborList.get(city, k);
+				if (!visited[c]) {
+					next = c;
+					if (skip == 0) {
+						break;
+					}
+					skip--;
+				}
+			}
+			if (next < 0) {
+				next = nearestUnvisited(city, false);
+			}
+			path[i] = next;
+			visited[next] = true;
+			city = next;
+		}
+	}
+
+	// greedy edge tour with noisy edge lengths
+	private void greedyEdge(int[] path, Random random) {
+		int count = 0;
+		for (int a = 0; a < N; a++) {
+			for (int k = 0; k < neighborList.size(); k++) {
+				int b = neighborList.get(a, k);
+				if (a < b) {
+					edges[2 * count] = a;
+					edges[2 * count + 1] = b;
+					weight[count] = distanceMatrix.distance(a, b) * (1 + NOISE * random.nextDouble());
+					order[count] = count;
+					count++;
+				}
+			}
+		}
+		sort(0, count - 1);
+
+		// take the shortest edges which keep the degrees at most 2 and close no cycle
+		Arrays.fill(adjacent, -1);
+		for (int i = 0; i < N; i++) {
+			parent[i] = i;
+		}
+		int taken = 0;
+		for (int i = 0; i < count && taken < N - 1; i++) {
+			int a = edges[2 * order[i]];
+			int b = edges[2 * order[i] + 1];
+			if (adjacent[2 * a + 1] >= 0 || adjacent[2 * b + 1] >= 0) {
+				continue;
+			}
+			int rootA = root(a);
+			int rootB = root(b);
+			if (rootA == rootB) {
+				continue;
+			}
+			parent[rootA] = rootB;
+			adjacent[adjacent[2 * a] < 0 ? 2 * a : 2 * a + 1] = b;
+			adjacent[adjacent[2 * b] < 0 ? 2 * b : 2 * b + 1] = a;
+			taken++;
+		}
+
+		// walk the fragments, joining the end of one to the nearest free end
+		Arrays.fill(visited, false);
+		int city = random.nextInt(N);
+		while (adjacent[2 * city + 1] >= 0) {
+			city = city + 1 == N ? 0 : city + 1;
+		}
+		int previous = -1;
+		for (int i = 0; i < N; i++) {
+			path[i] = city;
+			visited[city] = true;
+			if (i == N - 1) {
+				break;
+			}
+			int next = -1;
+			for (int j = 0; j < 2; j++) {
+				int c = adjacent[2 * city + j];
+				if (c >= 0 && c != previous && !visited[c]) {
+					next = c;
+				}
+			}
+			if (next < 0) {
+				next = nearestUnvisited(city, true);
+			}
+			previous = city;
+			city = next;
+		}
+	}
+
+	// root of a fragment in the union-find forest
+	private int root(int city) {
+		while (parent[city] != city) {
+			parent[city] = parent[parent[city]];
+			city = parent[city];
+		}
+		return city;
+	}
+
+	/**
+	 * Sorts order[lo..hi] by weight. Insertion sort is used for short
+	 * ranges and the middle element is the pivot otherwise.
+	 */
+	private void sort(int lo, int hi) {
+		while (hi - lo > 16) {
+			double pivot = weight[order[(lo + hi) >>> 1]];
+			int i = lo;
+			int j = hi;
+			while (i <= j) {
+				while (weight[order[i]] < pivot) {
+					i++;
+				}
+				while (weight[order[j]] > pivot) {
+					j--;
+				}
+				if (i <= j) {
+					int temp = order[i];
+					order[i] = order[j];
+					order[j] = temp;
+					i++;
+					j--;
+				}
+			}
+			// recurse on the smaller part, loop on the larger one
+			if (j - lo < hi - i) {
+				sort(lo, j);
+				lo = i;
+			}
+			else {
+				sort(i, hi);
+				hi = j;
+			}
+		}
+		for (int i = lo + 1; i <= hi; i++) {
+			int e = order[i];
+			int j = i - 1;
+			while (j >= lo && weight[order[j]] > weight[e]) {
+				order[j + 1] = order[j];
+				j--;
+			}
+			order[j + 1] = e;
+		}
+	}
+
+	/**
+	 * Nearest city not yet in the tour, found first among the neighbors
+	 * and then over all the cities.
+	 *
+	 * @param city city the tour ends at
+	 * @param freeEnd true to take only cities with less than two greedy edges
+	 * @return nearest such city
+	 */
+	private int nearestUnvisited(int city, boolean freeEnd) {
+		for (int k = 0; k < neighborList.size(); k++) {
+			int c = neighborList.get(city, k);
+			if (!visited[c] && (!freeEnd || adjacent[2 * c + 1] < 0)) {
+				return c;
+			}
+		}
+		int nearest = -1;
+		double best = Double.MAX_VALUE;
+		for (int c = 0; c < N; c++) {
+			if (!visited[c] && (!freeEnd || adjacent[2 * c + 1] < 0)) {
+				double d = distanceMatrix.distance(city, c);
+				if (d < best) {
+					best = d;
+					nearest = c;
+				}
+			}
+		}
+		return nearest;
+	}
+
+	// cities in the order of a randomly turned and shifted Hilbert curve
+	private void hilbert(int[] path, Random random) {
+		int minX = Integer.MAX_VALUE;
+		int minY = Integer.MAX_VALUE;
+		int maxX = Integer.MIN_VALUE;
+		int maxY = Integer.MIN_VALUE;
+		for (int c = 0; c < N; c++) {
+			minX = Math.min(minX, cityTable.getX(c));
+			minY = Math.min(minY, cityTable.getY(c));
+			maxX = Math.max(maxX, cityTable.getX(c));
+			maxY = Math.max(maxY, cityTable.getY(c));
+		}
+		// the cities fill half of the side of the grid, the rest is a random shift
+		int side = 1 << HILBERT_BITS;
+		int box = side / 2;
+		double scale = (box - 1) / (double) Math.max(1, Math.max(maxX - minX, maxY - minY));
+		boolean swap = random.nextBoolean();
+		boolean mirrorX = random.nextBoolean();
+		boolean mirrorY = random.nextBoolean();
+		int shiftX = random.nextInt(box);
+		int shiftY = random.nextInt(box);
+		for (int c = 0; c < N; c++) {
+			int x = (int) ((cityTable.getX(c) - minX) * scale);
+			int y = (int) ((cityTable.getY(c) - minY) * scale);
+			if (swap) {
+				int temp = x;
+				x = y;
+				y = temp;
+			}
+			if (mirrorX) {
+				x = box - 1 - x;
+			}
+			if (mirrorY) {
+				y = box - 1 - y;
+			}
+			x = x + shiftX;
+			y = y + shiftY;
+			keys[c] = (hilbertIndex(x, y, side) << 31) | c;
+		}
+		Arrays.sort(keys);
+		for (int i = 0; i < N; i++) {
+			path[i] = (int) (keys[i] & Integer.MAX_VALUE);
+		}
+	}
+
+	/**
+	 * Position of the point (x,y) along the Hilbert curve which fills a
+	 * side by side square.
+	 */
+	private static long hilbertIndex(int x, int y, int side) {
+		long d = 0;
+		for (int s = side / 2; s > 0; s = s / 2) {
+			int rx = (x & s) > 0 ? 1 : 0;
+			int ry = (y & s) > 0 ? 1 : 0;
+			d = d + (long) s * s * ((3 * rx) ^ ry);
+			// turn the quadrant so the curve inside it starts at its corner
+			if (ry == 0) {
+				if (rx == 1) {
+					x = side - 1 - x;
+					y = side - 1 - y;
+				}
+				int temp = x;
+				x = y;
+				y = temp;
+			}
+		}
+		return d;
+	}
+
+}
@@ -0,0 +1,106 @@
+/**
+ * Class TwoOpt improves a tour with 2-opt moves until no move shortens
+ * it. A move removes the edges (a,b) and (c,d) and adds (a,c) and (b,d)
+ * by reversing the cities between them. Only the K nearest neighbors of
+ * a are tried as c, and only while d(a,c) is shorter than d(a,b), since
+ * otherwise the move can not gain.
+ *
+ * Cities waiting to be looked at are kept in a CityQueue. A city leaves
+ * the queue when no move from it gains (its don't-look bit is set) and
+ * comes back only when one of its edges is changed. All the arrays are
+ * allocated once, improve() does not create any objects.
+ *
+ * @author Satyajeet Shahane, Ajeeth Kannan
+ */
+public class TwoOpt implements LocalSearch {
+
+	private static final double EPSILON = 1e-10; // smallest gain taken as a gain
+
+	private int N; // number of cities
+	private int K; // neighbors tried for each city
+	private DistanceMatrix distanceMatrix; // distance between every pair of cities
+	private NeighborList neighborList; // nearest neighbors of every city
+	private IndexedTour tour; // tour being improved
+	private CityQueue queue; // cities with their don't-look bit off
+
+	/**
+	 * Parameterized constructor
+	 *
+	 * @param distanceMatrix distance between every pair of cities
+	 * @param K number of neighbors tried for each city
+	 */
+	public TwoOpt(DistanceMatrix distanceMatrix, int K) {
+		this.distanceMatrix = distanceMatrix;
+		N = distanceMatrix.size();
+		neighborList = distanceMatrix.getNeighborList(K);
+		this.K = Math.min(K, neighborList.size());
+		tour = new IndexedTour(N);
+		queue = new CityQueue(N);
+	}
+
+	/**
+	 * improve() declared in Interface LocalSearch
+	 */
+	public double improve(int[] path, int off) {
+		if (N < 5) {
+			return 0;
+		}
+		tour.load(path, off);
+		queue.pushAll(path, off);
+		return search();
+	}
+
+	/**
+	 * improve() declared in Interface LocalSearch
+	 */
+	public double improve(int[] path, int off, int[] cities, int count) {
+		if (N < 5) {
+			return 0;
+		}
+		tour.load(path, off);
+		for (int i = 0; i < count; i++) {
+			queue.push(cities[i]);
+		}
+		return search();
+	}
+
+	// looks at the cities in the queue until it is empty
+	private double search() {
+		double delta = 0;
+		while (!queue.isEmpty()) {
+			delta = delta + improveCity(queue.pop());
+		}
+		return delta;
+	}
+
+	// tries the moves from city a in both directions, makes the first one that gains
+	private double improveCity(int a) {
+		for (int direction = 0; direction < 2; direction++) {
+			int b = direction == 0 ? tour.next(a) : tour.previous(a);
+			double ab = distanceMatrix.distance(a, b);
+			for (int k = 0; k < K; k++) {
+				int c = neighborList.get(a, k);
+				double ac = distanceMatrix.distance(a, c);
+				if (ac >= ab) {
+					break;
+				}
+				int d = direction == 0 ? tour.next(c) : tour.previous(c);
+				if (c == b || d == a) {
+					continue;
+				}
+				double delta = ac + distanceMatrix.distance(b, d) - ab - distanceMatrix.distance(c, d);
+				if (delta < -EPSILON) {
+					// a b .. c d becomes a c .. b d
+					tour.move(a, b, c, d);
+					queue.push(a);
+					queue.push(b);
+					queue.push(c);
+					queue.push(d);
+					return delta;
+				}
+			}
+		}
+		return 0;
+	}
+
+}
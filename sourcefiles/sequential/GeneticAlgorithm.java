@@ -26,6 +26,11 @@ public class GeneticAlgorithm {
 	private int crossPoint2; // crossover point2 for ordered crossover
 	
 	private long randomCount = -2147483648; // seed for random
+	
+	private int stall; // generations without improvement before stopping, 0 for never
+	private double target; // tour length good enough to stop, 0 for never
+	private double bestLength = Double.MAX_VALUE; // shortest tour seen
+	private int stalled; // generations since bestLength last changed
 
 	/**
 	 * Parameterized constructor
@@ -42,6 +47,18 @@ public class GeneticAlgorithm {
 		perIterPopulation = new Population();
 	}
 
+	/**
+	 * Stops run() before iterGA generations when the best tour has not
+	 * become shorter for stall generations or is at most target long.
+	 * 
+	 * @param stall generations without improvement, 0 for no limit
+	 * @param target tour length good enough to stop, 0 for none
+	 */
+	public void setTermination(int stall, double target) {
+		this.stall = stall;
+		this.target = target;
+	}
+
 	/**
 	 * 
 	 * run() calls all the operations for genetic algorithm. 
@@ -70,10 +87,32 @@ public class GeneticAlgorithm {
 			{
 				population.addTour(perIterPopulation.tours.get(i));
 			}
+			
+			if( converged() ) {
+				break;
+			}
 		}
 		
 	}
 	
+	/**
+	 * checks the termination criteria with the best tour, the first one
+	 * of the sorted population
+	 * 
+	 * @return true if run() can stop
+	 */
+	private boolean converged() {
+		double best = population.tours.get(0).getEucDistance();
+		if( best < bestLength - 1e-10 ) {
+			bestLength = best;
+			stalled = 0;
+		}
+		else {
+			stalled++;
+		}
+		return (target > 0 && bestLength <= target) || (stall > 0 && stalled >= stall);
+	}
+	
 	/**
 	 * fitnessFunction() evaluates the fitness value for each tour and
 	 * sorts the tour according to the fitness. 
@@ -23,6 +23,8 @@ public class SeqTSPGA extends Job {
 	private String inputFileName;
 	private String stringArray[];
 	private int iterGA; 
+	private int stall = 0; // stall=k, stop after k generations without improvement
+	private double target = 0; // target=l, stop when a tour is at most l long
 	
 	/**
 	 * Job main program.
@@ -32,8 +34,8 @@ public class SeqTSPGA extends Job {
 		initTour = new Tour();
 		
 		// Parse command line arguments
-		if( args.length != 2 ) {
-			throw new ArrayIndexOutOfBoundsException("SeqTSPGA should have 2 arguments");
+		if( args.length < 2 ) {
+			throw new ArrayIndexOutOfBoundsException("SeqTSPGA should have at least 2 arguments");
 		}
 		
 		inputFileName = args[0];
@@ -45,13 +47,18 @@ public class SeqTSPGA extends Job {
 			throw new NumberFormatException("Argument 2 should be a number");
 		}
 		
+		for( int i = 2; i < args.length; i++ ) {
+			setOption(args[i]);
+		}
+		
 		addCities();
 		
 		// put the initial tour into the tuple space
 		putTuple( new ObjectTuple<Tour>(initTour) );
 		
 		// Set up a task group of K worker tasks
-		rule().task(workers(), WorkerTask.class).args(Integer.toString(iterGA));
+		rule().task(workers(), WorkerTask.class).args(Integer.toString(iterGA),
+				Integer.toString(stall), Double.toString(target));
 		
 		// Set up reduction task
 		rule().atFinish().task(ReduceTask.class).runInJobProcess().args(stringArray);
@@ -59,6 +66,35 @@ public class SeqTSPGA extends Job {
 		
 	}
 	
+	/**
+	 * Parses one of the options stall=k and target=l given after the
+	 * required arguments.
+	 * 
+	 * @param option option as key=value
+	 */
+	private void setOption(String option) {
+		int at = option.indexOf('=');
+		String key = at > 0 ? option.substring(0, at) : option;
+		String value = option.substring(at + 1);
+		try {
+			if( key.equals("stall") ) {
+				stall = Integer.parseInt(value);
+			}
+			else if( key.equals("target") ) {
+				target = Double.parseDouble(value);
+			}
+			else {
+				throw new IllegalArgumentException("Unknown option " + option);
+			}
+		}
+		catch(NumberFormatException e) {
+			throw new NumberFormatException("Option " + key + " should be a number, not " + value);
+		}
+		if( stall < 0 || !(target >= 0) ) {
+			throw new IllegalArgumentException("Option " + key + " can not be " + value);
+		}
+	}
+	
 	/**
 	 * 
 	 * Parse the cities from the input file.
@@ -160,6 +196,7 @@ public class SeqTSPGA extends Job {
 			
 			// initialize genetic algorithm
 			geneticAlgorithm = new GeneticAlgorithm(population,popSize,N);
+			geneticAlgorithm.setTermination(Integer.parseInt(args[1]), Double.parseDouble(args[2]));
 			
 			// run genetic algorithm
 			geneticAlgorithm.run(iterGA);
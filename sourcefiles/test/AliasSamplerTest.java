@@ -0,0 +1,126 @@
+import edu.rit.util.Random;
+
+/**
+ * Class AliasSamplerTest draws many indices from AliasSampler and checks
+ * that each index is drawn about as often as its share of the weights,
+ * within five standard deviations. An index with weight 0 must never be
+ * drawn. Equal weights, zero weights, a single weight, a very small
+ * weight and a table built again with fewer and with more weights are
+ * tried, and weights which can not be sampled must be refused.
+ *
+ *     javac -cp pj2.jar -d out sourcefiles/parallel/*.java sourcefiles/test/*.java
+ *     java -cp pj2.jar:out AliasSamplerTest
+ *
+ * The exit status is 1 if a check fails.
+ *
+ * @author Satyajeet Shahane, Ajeeth Kannan
+ */
+public class AliasSamplerTest {
+
+	private static final int DRAWS = 1000000; // draws for each set of weights
+
+	private static int failures; // checks which failed
+
+	/**
+	 * main method
+	 *
+	 * @param args not used
+	 */
+	public static void main(String[] args) {
+		Random random = new Random(1);
+		AliasSampler sampler = new AliasSampler(4);
+
+		check("mixed", sampler, new double[] { 1, 2, 3, 0, 4, 1, 1 }, random);
+		check("equal", sampler, new double[] { 5, 5, 5, 5, 5 }, random);
+		check("one non-zero", sampler, new double[] { 0, 0, 7, 0 }, random);
+		check("single", sampler, new double[] { 3 }, random);
+		check("zeros at the ends", sampler, new double[] { 0, 1, 1, 2, 0 }, random);
+		check("very small", sampler, new double[] { 1e-6, 1, 1, 1 }, random);
+
+		// built again with fewer weights, the old ones beyond n must not be drawn
+		check("fewer", sampler, new double[] { 2, 1, 9, 9, 9, 9 }, 2, random);
+
+		// more weights than the capacity
+		double[] ranks = new double[100];
+		for (int i = 0; i < ranks.length; i++) {
+			ranks[i] = ranks.length - i;
+		}
+		check("ranks", sampler, ranks, random);
+
+		// weights which can not be sampled
+		try {
+			sampler.build(new double[] { 0, 0, 0 }, 3);
+			fail("all zero", "build() took weights which add up to 0");
+		}
+		catch (IllegalArgumentException e) {
+		}
+		try {
+			sampler.build(new double[] { 1 }, 0);
+			fail("no weight", "build() took no weights");
+		}
+		catch (IllegalArgumentException e) {
+		}
+
+		if (failures > 0) {
+			System.out.println(failures + " checks failed");
+			System.exit(1);
+		}
+		System.out.println("all checks passed");
+	}
+
+	// checks all the weights
+	private static void check(String name, AliasSampler sampler, double[] weight, Random random) {
+		check(name, sampler, weight, weight.length, random);
+	}
+
+	/**
+	 * Builds the table for the first n weights, draws DRAWS indices and
+	 * compares how often each index was drawn with its share.
+	 *
+	 * @param name set of weights, for the messages
+	 * @param sampler sampler to be built
+	 * @param weight weights
+	 * @param n number of weights used
+	 * @param random random for the draws
+	 */
+	private static void check(String name, AliasSampler sampler, double[] weight, int n, Random random) {
+		sampler.build(weight, n);
+		if (sampler.size() != n) {
+			fail(name, "size " + sampler.size() + ", expected " + n);
+		}
+		int[] count = new int[n];
+		for (int d = 0; d < DRAWS; d++) {
+			int index = sampler.next(random);
+			if (index < 0 || index >= n) {
+				fail(name, "index " + index + " drawn");
+				return;
+			}
+			count[index]++;
+		}
+		double total = 0;
+		for (int i = 0; i < n; i++) {
+			total = total + weight[i];
+		}
+		for (int i = 0; i < n; i++) {
+			double share = weight[i] / total;
+			if (share == 0) {
+				if (count[i] > 0) {
+					fail(name, "index " + i + " with weight 0 drawn " + count[i] + " times");
+				}
+				continue;
+			}
+			double expected = share * DRAWS;
+			double deviation = Math.sqrt(DRAWS * share * (1 - share));
+			if (Math.abs(count[i] - expected) > 5 * deviation + 1) {
+				fail(name, "index " + i + " drawn " + count[i] + " times, expected about " + Math.round(expected));
+			}
+		}
+	}
+
+	// reports a failed check
+	private static void fail(String name, String message) {
+		System.out.println("FAILED " + name + ": " + message);
+		failures++;
+	}
+
+}
@@ -0,0 +1,141 @@
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * Class LocalSearchEnginesTest runs every engine of the parallel genetic
+ * algorithm with a local search on a small instance and checks the
+ * population after the first generation and after every run: it has
+ * popSize tours, no tour is there twice, every tour is a permutation of
+ * the cities and its cached length and hash are right. With few cities
+ * the local search takes many tours to the same local optimum, which
+ * used to leave duplicates in the population.
+ *
+ * It needs no pj2 runtime, only the classes of sourcefiles/parallel:
+ *
+ *     javac -cp pj2.jar -d out sourcefiles/parallel/*.java sourcefiles/test/*.java
+ *     java -cp pj2.jar:out LocalSearchEnginesTest input/30.txt
+ *
+ * The exit status is 1 if a check fails.
+ *
+ * @author Satyajeet Shahane, Ajeeth Kannan
+ */
+public class LocalSearchEnginesTest {
+
+	private static final int POP_SIZE = 30; // tours in the population
+	private static final int RUNS = 3; // runs of each engine
+	private static final int GENERATIONS = 50; // generations of each run
+
+	private static final String[] ENGINES = { "", "store=flat", "engine=steady", "engine=lk" };
+	private static final String[] LOCAL_SEARCHES = { "localSearch=2opt,oropt", "localSearch=lk" };
+
+	private static int failures; // checks which failed
+
+	/**
+	 * main method
+	 *
+	 * @param args input file, input/30.txt if none is given
+	 * @throws IOException if the input file cannot be read
+	 */
+	public static void main(String[] args) throws IOException {
+		String inputFileName = args.length > 0 ? args[0] : "input/30.txt";
+		CityTable cityTable = readCities(inputFileName);
+		DistanceMatrix distanceMatrix = new DistanceMatrix(cityTable);
+		int N = cityTable.size();
+
+		for (String engine : ENGINES) {
+			for (String localSearch : LOCAL_SEARCHES) {
+				String name = (engine.length() == 0 ? "generational" : engine) + " " + localSearch;
+				String[] options = engine.length() == 0 ? new String[] { localSearch } : new String[] { engine, localSearch };
+				GAConfig config = GAConfig.parse(options, 0);
+				Population population = new Population(new Tour(N), POP_SIZE, 1, distanceMatrix);
+				GeneticAlgorithm geneticAlgorithm = new GeneticAlgorithm(population, POP_SIZE, N, config.newRandom(1), distanceMatrix, config);
+				check(name + ", first generation", geneticAlgorithm.getPopulation(), N, distanceMatrix);
+				for (int run = 1; run <= RUNS; run++) {
+					geneticAlgorithm.run(GENERATIONS);
+					check(name + ", run " + run, geneticAlgorithm.getPopulation(), N, distanceMatrix);
+				}
+				System.out.println(name + ": best " + geneticAlgorithm.getPopulation().getTours().get(0).getEucDistance());
+			}
+		}
+
+		if (failures > 0) {
+			System.out.println(failures + " checks failed");
+			System.exit(1);
+		}
+		System.out.println("all checks passed");
+	}
+
+	/**
+	 * Checks the size of the population and every tour in it.
+	 *
+	 * @param name engine and point of the run, for the messages
+	 * @param population population to be checked
+	 * @param N number of cities
+	 * @param distanceMatrix distance between every pair of cities
+	 */
+	private static void check(String name, Population population, int N, DistanceMatrix distanceMatrix) {
+		ArrayList<Tour> tours = population.getTours();
+		if (tours.size() != POP_SIZE) {
+			fail(name, "population has " + tours.size() + " tours, expected " + POP_SIZE);
+		}
+		LongHashSet seen = new LongHashSet();
+		for (int i = 0; i < tours.size(); i++) {
+			Tour tour = tours.get(i);
+			int[] path = tour.getPath();
+			boolean[] visited = new boolean[N];
+			for (int j = 0; j < path.length; j++) {
+				if (visited[path[j]]) {
+					fail(name, "tour " + i + " visits city " + path[j] + " twice");
+				}
+				visited[path[j]] = true;
+			}
+			long hash = Tour.hash(path, 0, N);
+			if (tour.getHash() != hash) {
+				fail(name, "tour " + i + " has a stale hash");
+			}
+			if (!seen.add(hash)) {
+				fail(name, "tour " + i + " is in the population twice");
+			}
+			if (!population.contains(tour)) {
+				fail(name, "contains() does not find tour " + i);
+			}
+			Tour copy = new Tour(tour);
+			copy.calculateDistance(distanceMatrix);
+			if (Math.abs(copy.getEucDistance() - tour.getEucDistance()) > 1e-6) {
+				fail(name, "tour " + i + " has a stale length");
+			}
+		}
+	}
+
+	// reports a failed check
+	private static void fail(String name, String message) {
+		System.out.println("FAILED " + name + ": " + message);
+		failures++;
+	}
+
+	/**
+	 * Reads the co-ordinates of the cities, one city "x y" per line.
+	 *
+	 * @param inputFileName file holding the cities
+	 * @return table of the cities
+	 * @throws IOException if the file cannot be read
+	 */
+	private static CityTable readCities(String inputFileName) throws IOException {
+		ArrayList<City> cities = new ArrayList<City>();
+		BufferedReader bufferedReader = new BufferedReader(new FileReader(inputFileName));
+		try {
+			String line;
+			while ((line = bufferedReader.readLine()) != null) {
+				String[] points = line.trim().split(" ");
+				cities.add(new City(Integer.parseInt(points[0]), Integer.parseInt(points[1])));
+			}
+		}
+		finally {
+			bufferedReader.close();
+		}
+		return new CityTable(cities.toArray(new City[cities.size()]));
+	}
+
+}
@@ -0,0 +1,214 @@
+import java.util.Arrays;
+
+/**
+ * Class MailboxTest checks the lock-free queue Mailbox:
+ *
+ *     - a full mailbox refuses the item of offer()
+ *     - items come out in order after the positions wrap around the
+ *       capacity many times
+ *     - put() on a full mailbox loses the oldest items, not the newest
+ *     - with several senders and one receiver, every item sent with
+ *       offer() comes out once, in the order each sender sent them
+ *     - with senders using put() on a small mailbox, no item comes out
+ *       twice and the items of a sender still come out in order
+ *
+ *     javac -cp pj2.jar -d out sourcefiles/parallel/*.java sourcefiles/test/*.java
+ *     java -cp pj2.jar:out MailboxTest
+ *
+ * The exit status is 1 if a check fails.
+ *
+ * @author Satyajeet Shahane, Ajeeth Kannan
+ */
+public class MailboxTest {
+
+	private static final int CAPACITY = 8; // capacity of the small mailboxes, a power of 2
+	private static final int SENDERS = 4; // threads sending at the same time
+	private static final int ITEMS = 100000; // items of each sender
+
+	private static int failures; // checks which failed
+
+	/**
+	 * main method
+	 *
+	 * @param args not used
+	 * @throws InterruptedException if interrupted while waiting for a sender
+	 */
+	public static void main(String[] args) throws InterruptedException {
+		full();
+		wrapAround();
+		putKeepsNewest();
+		senders(false);
+		senders(true);
+
+		if (failures > 0) {
+			System.out.println(failures + " checks failed");
+			System.exit(1);
+		}
+		System.out.println("all checks passed");
+	}
+
+	// a full mailbox refuses an item, and takes one again after a poll()
+	private static void full() {
+		Mailbox<Integer> mailbox = new Mailbox<Integer>(CAPACITY);
+		for (int i = 0; i < CAPACITY; i++) {
+			if (!mailbox.offer(i)) {
+				fail("full", "item " + i + " refused before the mailbox is full");
+			}
+		}
+		if (mailbox.offer(CAPACITY)) {
+			fail("full", "a full mailbox took an item");
+		}
+		if (!Integer.valueOf(0).equals(mailbox.poll())) {
+			fail("full", "the oldest item does not come out first");
+		}
+		if (!mailbox.offer(CAPACITY)) {
+			fail("full", "no item taken after a poll()");
+		}
+		for (int i = 1; i <= CAPACITY; i++) {
+			if (!Integer.valueOf(i).equals(mailbox.poll())) {
+				fail("full", "item " + i + " does not come out in order");
+			}
+		}
+		if (mailbox.poll() != null) {
+			fail("full", "an empty mailbox gave an item");
+		}
+	}
+
+	// positions go round the slots many times with the mailbox at every fill level
+	private static void wrapAround() {
+		Mailbox<Integer> mailbox = new Mailbox<Integer>(CAPACITY);
+		int sent = 0;
+		int received = 0;
+		for (int round = 0; round < 100 * CAPACITY; round++) {
+			int fill = round % (CAPACITY + 1);
+			for (int i = 0; i < fill; i++) {
+				if (!mailbox.offer(sent)) {
+					fail("wrap around", "item " + sent + " refused");
+				}
+				sent++;
+			}
+			Integer item;
+			while ((item = mailbox.poll()) != null) {
+				if (item != received) {
+					fail("wrap around", "item " + item + " came out, expected " + received);
+				}
+				received = item + 1;
+			}
+		}
+		if (received != sent) {
+			fail("wrap around", received + " items came out of " + sent);
+		}
+	}
+
+	// put() on a full mailbox keeps the newest CAPACITY items
+	private static void putKeepsNewest() {
+		Mailbox<Integer> mailbox = new Mailbox<Integer>(CAPACITY);
+		int count = 5 * CAPACITY + 3;
+		for (int i = 0; i < count; i++) {
+			mailbox.put(i);
+		}
+		for (int i = count - CAPACITY; i < count; i++) {
+			if (!Integer.valueOf(i).equals(mailbox.poll())) {
+				fail("put", "item " + i + " does not come out of a full mailbox");
+			}
+		}
+		if (mailbox.poll() != null) {
+			fail("put", "more than " + CAPACITY + " items in the mailbox");
+		}
+	}
+
+	/**
+	 * SENDERS threads send ITEMS items each while this thread receives
+	 * them. With offer() a sender waits until its item is taken, so all
+	 * the items come out. With put() the oldest items can be lost.
+	 *
+	 * @param evict true for put(), false for offer()
+	 * @throws InterruptedException if interrupted while waiting for a sender
+	 */
+	private static void senders(final boolean evict) throws InterruptedException {
+		String name = evict ? "senders with put" : "senders with offer";
+		final Mailbox<Integer> mailbox = new Mailbox<Integer>(evict ? CAPACITY : 64);
+		Thread[] threads = new Thread[SENDERS];
+		for (int s = 0; s < SENDERS; s++) {
+			final int sender = s;
+			threads[s] = new Thread() {
+				public void run() {
+					for (int i = 0; i < ITEMS; i++) {
+						Integer item = sender * ITEMS + i;
+						if (evict) {
+							mailbox.put(item);
+						}
+						else {
+							while (!mailbox.offer(item)) {
+								Thread.yield();
+							}
+						}
+					}
+				}
+			};
+			threads[s].start();
+		}
+
+		boolean[] seen = new boolean[SENDERS * ITEMS];
+		int[] last = new int[SENDERS];
+		Arrays.fill(last, -1);
+		int received = 0;
+		while (true) {
+			Integer item = mailbox.poll();
+			if (item == null) {
+				if (!evict && received == SENDERS * ITEMS) {
+					break;
+				}
+				if (evict && !alive(threads)) {
+					item = mailbox.poll();
+					if (item == null) {
+						break;
+					}
+				}
+				else {
+					Thread.yield();
+					continue;
+				}
+			}
+			if (seen[item]) {
+				fail(name, "item " + item + " came out twice");
+			}
+			seen[item] = true;
+			received++;
+			int sender = item / ITEMS;
+			if (item % ITEMS <= last[sender]) {
+				fail(name, "item " + item + " came out after item " + (sender * ITEMS + last[sender]));
+			}
+			last[sender] = item % ITEMS;
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		if (!evict && received != SENDERS * ITEMS) {
+			fail(name, received + " items came out of " + SENDERS * ITEMS);
+		}
+		if (evict && received == 0) {
+			fail(name, "no item came out");
+		}
+		if (mailbox.poll() != null) {
+			fail(name, "items left after the senders are done");
+		}
+	}
+
+	// checks if one of the threads is still running
+	private static boolean alive(Thread[] threads) {
+		for (Thread thread : threads) {
+			if (thread.isAlive()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	// reports a failed check
+	private static void fail(String name, String message) {
+		System.out.println("FAILED " + name + ": " + message);
+		failures++;
+	}
+
+}
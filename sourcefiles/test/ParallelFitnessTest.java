@@ -0,0 +1,113 @@
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Class ParallelFitnessTest checks that evaluation=parallel gives the
+ * same lengths and the same largest length as evaluating the tours one
+ * after the other with calculateDistance(). The population of pop=4000
+ * tours on 60 cities is larger than one chunk, so the tours are split
+ * over the threads of the pool. Tours which already have a length are
+ * left as they are.
+ *
+ *     javac -cp pj2.jar -d out sourcefiles/parallel/*.java sourcefiles/test/*.java
+ *     java -cp pj2.jar:out ParallelFitnessTest
+ *
+ * The exit status is 1 if a check fails.
+ *
+ * @author Satyajeet Shahane, Ajeeth Kannan
+ */
+public class ParallelFitnessTest {
+
+	private static final int N = 60; // cities
+	private static final int POP_SIZE = 4000; // tours, more than the 65536 / N of one chunk
+	private static final int THREADS = 4; // threads of the pool
+
+	private static int failures; // checks which failed
+
+	/**
+	 * main method
+	 *
+	 * @param args not used
+	 */
+	public static void main(String[] args) {
+		Random random = new Random(1);
+		City[] cities = new City[N];
+		for (int i = 0; i < N; i++) {
+			cities[i] = new City(random.nextInt(10000), random.nextInt(10000));
+		}
+		DistanceMatrix distanceMatrix = new DistanceMatrix(new CityTable(cities));
+		Population population = new Population(new Tour(N), POP_SIZE, 1, distanceMatrix);
+		ArrayList<Tour> expected = population.getTours();
+
+		// serial lengths and their maximum
+		double expectedMax = 0;
+		for (int i = 0; i < expected.size(); i++) {
+			expected.get(i).calculateDistance(distanceMatrix);
+			expectedMax = Math.max(expectedMax, expected.get(i).getEucDistance());
+		}
+
+		ForkJoinPool pool = new ForkJoinPool(THREADS);
+		ParallelFitness parallelFitness = new ParallelFitness(distanceMatrix, pool);
+
+		// every tour without a length
+		ArrayList<Tour> tours = copies(expected, 1);
+		double max = parallelFitness.evaluate(tours);
+		compare("all tours", expected, expectedMax, tours, max);
+
+		// every third tour without a length, the others are not evaluated again
+		tours = copies(expected, 3);
+		max = parallelFitness.evaluate(tours);
+		compare("every third tour", expected, expectedMax, tours, max);
+
+		// an empty population
+		if (parallelFitness.evaluate(new ArrayList<Tour>()) != 0) {
+			fail("empty population", "largest length is not 0");
+		}
+
+		pool.shutdown();
+		if (failures > 0) {
+			System.out.println(failures + " checks failed");
+			System.exit(1);
+		}
+		System.out.println("all checks passed");
+	}
+
+	/**
+	 * Copies the tours, every step-th one with a NaN length so it has to
+	 * be evaluated.
+	 *
+	 * @param tours tours with their lengths
+	 * @param step distance between the tours without a length
+	 * @return the copies
+	 */
+	private static ArrayList<Tour> copies(ArrayList<Tour> tours, int step) {
+		ArrayList<Tour> copies = new ArrayList<Tour>(tours.size());
+		for (int i = 0; i < tours.size(); i++) {
+			Tour tour = tours.get(i);
+			double length = i % step == 0 ? Double.NaN : tour.getEucDistance();
+			copies.add(new Tour(tour.getPath().clone(), length, tour.getHash()));
+		}
+		return copies;
+	}
+
+	// compares the lengths and the maximum found on the pool with the serial ones
+	private static void compare(String name, ArrayList<Tour> expected, double expectedMax, ArrayList<Tour> tours, double max) {
+		for (int i = 0; i < expected.size(); i++) {
+			if (tours.get(i).getEucDistance() != expected.get(i).getEucDistance()) {
+				fail(name, "tour " + i + " has length " + tours.get(i).getEucDistance() + ", expected "
+						+ expected.get(i).getEucDistance());
+			}
+		}
+		if (max != expectedMax) {
+			fail(name, "largest length " + max + ", expected " + expectedMax);
+		}
+	}
+
+	// reports a failed check
+	private static void fail(String name, String message) {
+		System.out.println("FAILED " + name + ": " + message);
+		failures++;
+	}
+
+}
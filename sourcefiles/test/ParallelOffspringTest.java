@@ -0,0 +1,143 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Class ParallelOffspringTest checks that offspring=parallel makes the
+ * same children from the same seed whatever the threads are: on a pool
+ * of four threads, on a pool of one thread and inline, when there are
+ * fewer children than one task makes. 2000 children of 60 cities are
+ * more than one task, so the pools split them and steal the halves.
+ * Every child must also be a permutation of the cities with the right
+ * length and hash.
+ *
+ *     javac -cp pj2.jar -d out sourcefiles/parallel/*.java sourcefiles/test/*.java
+ *     java -cp pj2.jar:out ParallelOffspringTest
+ *
+ * The exit status is 1 if a check fails.
+ *
+ * @author Satyajeet Shahane, Ajeeth Kannan
+ */
+public class ParallelOffspringTest {
+
+	private static final int N = 60; // cities
+	private static final int POP_SIZE = 200; // parents
+	private static final int CHILDREN = 2000; // children, more than the 16384 / N of one task
+	private static final int INLINE = 100; // children, fewer than one task makes
+	private static final long SEED = 12345; // seed of the random streams of the children
+
+	private static final String[][] OPTIONS = {
+		{ "crossover=ox", "mutation=inversion" },
+		{ "crossover=eax", "mutation=doublebridge", "localSearch=2opt,oropt" },
+	};
+
+	private static int failures; // checks which failed
+
+	/**
+	 * main method
+	 *
+	 * @param args not used
+	 */
+	public static void main(String[] args) {
+		Random random = new Random(1);
+		City[] cities = new City[N];
+		for (int i = 0; i < N; i++) {
+			cities[i] = new City(random.nextInt(10000), random.nextInt(10000));
+		}
+		DistanceMatrix distanceMatrix = new DistanceMatrix(new CityTable(cities));
+		ArrayList<Tour> parents = new Population(new Tour(N), POP_SIZE, 1, distanceMatrix).populationSort().getTours();
+
+		// parents of every child, one child in five is a mutation
+		int[] parent1 = new int[CHILDREN];
+		int[] parent2 = new int[CHILDREN];
+		for (int i = 0; i < CHILDREN; i++) {
+			parent1[i] = random.nextInt(POP_SIZE);
+			parent2[i] = i % 5 == 0 ? -1 : random.nextInt(POP_SIZE);
+		}
+
+		ForkJoinPool pool = new ForkJoinPool(4);
+		ForkJoinPool single = new ForkJoinPool(1);
+		for (String[] options : OPTIONS) {
+			GAConfig config = GAConfig.parse(options, 0);
+			String name = Arrays.toString(options);
+
+			ParallelOffspring offspring = new ParallelOffspring(config, distanceMatrix, pool);
+			breed(offspring, parents, parent1, parent2, CHILDREN);
+			check(name + ", four threads", offspring, distanceMatrix);
+
+			ParallelOffspring again = new ParallelOffspring(config, distanceMatrix, pool);
+			breed(again, parents, parent1, parent2, CHILDREN);
+			compare(name + ", four threads again", offspring, again);
+
+			ParallelOffspring oneThread = new ParallelOffspring(config, distanceMatrix, single);
+			breed(oneThread, parents, parent1, parent2, CHILDREN);
+			compare(name + ", one thread", offspring, oneThread);
+
+			ParallelOffspring inline = new ParallelOffspring(config, distanceMatrix, pool);
+			breed(inline, parents, parent1, parent2, INLINE);
+			compare(name + ", inline", offspring, inline);
+		}
+
+		pool.shutdown();
+		single.shutdown();
+		if (failures > 0) {
+			System.out.println(failures + " checks failed");
+			System.exit(1);
+		}
+		System.out.println("all checks passed");
+	}
+
+	// makes the first count children from the same parents and seed
+	private static void breed(ParallelOffspring offspring, ArrayList<Tour> parents, int[] parent1, int[] parent2, int count) {
+		offspring.clear();
+		for (int i = 0; i < count; i++) {
+			if (parent2[i] < 0) {
+				offspring.addMutation(parent1[i]);
+			}
+			else {
+				offspring.addCrossover(parent1[i], parent2[i]);
+			}
+		}
+		offspring.breed(parents, SEED);
+	}
+
+	// checks that every child is a permutation with the right length and hash
+	private static void check(String name, ParallelOffspring offspring, DistanceMatrix distanceMatrix) {
+		for (int i = 0; i < offspring.size(); i++) {
+			int[] path = offspring.getPath(i);
+			boolean[] visited = new boolean[N];
+			for (int j = 0; j < N; j++) {
+				if (visited[path[j]]) {
+					fail(name, "child " + i + " visits city " + path[j] + " twice");
+				}
+				visited[path[j]] = true;
+			}
+			Tour tour = new Tour(path.clone());
+			tour.calculateDistance(distanceMatrix);
+			if (Math.abs(tour.getEucDistance() - offspring.getLength(i)) > 1e-6) {
+				fail(name, "child " + i + " has length " + offspring.getLength(i) + ", expected " + tour.getEucDistance());
+			}
+			if (tour.getHash() != offspring.getHash(i)) {
+				fail(name, "child " + i + " has a wrong hash");
+			}
+		}
+	}
+
+	// compares the first children of two runs
+	private static void compare(String name, ParallelOffspring expected, ParallelOffspring offspring) {
+		for (int i = 0; i < offspring.size(); i++) {
+			if (!Arrays.equals(expected.getPath(i), offspring.getPath(i)) || expected.getLength(i) != offspring.getLength(i)
+					|| expected.getHash(i) != offspring.getHash(i)) {
+				fail(name, "child " + i + " is not the same");
+			}
+		}
+	}
+
+	// reports a failed check
+	private static void fail(String name, String message) {
+		System.out.println("FAILED " + name + ": " + message);
+		failures++;
+	}
+
+}
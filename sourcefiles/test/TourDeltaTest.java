@@ -0,0 +1,142 @@
+import java.util.Random;
+
+/**
+ * Class TourDeltaTest checks that swapDelta(), reverseDelta() and
+ * moveSegmentDelta() of Tour are the change in length that a full
+ * calculateDistance() of the changed tour gives, and that swap(),
+ * reverse() and moveSegment() keep that length. All the moves of
+ * random tours of 5 to 12 cities are tried, so the moves next to the
+ * ends of the path and the moves of neighbouring positions are all
+ * covered, then random moves of a tour of 200 cities.
+ *
+ *     javac -cp pj2.jar -d out sourcefiles/parallel/*.java sourcefiles/test/*.java
+ *     java -cp pj2.jar:out TourDeltaTest
+ *
+ * The exit status is 1 if a check fails.
+ *
+ * @author Satyajeet Shahane, Ajeeth Kannan
+ */
+public class TourDeltaTest {
+
+	private static final int LARGE = 200; // cities of the tour with random moves
+	private static final int MOVES = 20000; // random moves of each kind
+	private static final double EPSILON = 1e-6; // largest error of a delta
+
+	private static int failures; // checks which failed
+
+	/**
+	 * main method
+	 *
+	 * @param args not used
+	 */
+	public static void main(String[] args) {
+		Random random = new Random(1);
+
+		for (int n = 5; n <= 12; n++) {
+			DistanceMatrix distanceMatrix = cities(n, random);
+			Tour tour = new Tour(n);
+			tour.Shuffle(random);
+			tour.calculateDistance(distanceMatrix);
+			for (int i = 0; i < n; i++) {
+				for (int j = 0; j < n; j++) {
+					swap(tour, i, j, distanceMatrix);
+					if (i <= j) {
+						reverse(tour, i, j, distanceMatrix);
+						for (int k = 0; k < n; k++) {
+							if ((k < i || k > j) && k != (i - 1 + n) % n) {
+								moveSegment(tour, i, j, k, distanceMatrix);
+							}
+						}
+					}
+				}
+			}
+		}
+
+		DistanceMatrix distanceMatrix = cities(LARGE, random);
+		Tour tour = new Tour(LARGE);
+		tour.Shuffle(random);
+		tour.calculateDistance(distanceMatrix);
+		for (int m = 0; m < MOVES; m++) {
+			swap(tour, random.nextInt(LARGE), random.nextInt(LARGE), distanceMatrix);
+			int i = random.nextInt(LARGE);
+			int j = i + random.nextInt(LARGE - i);
+			reverse(tour, i, j, distanceMatrix);
+			if (j - i < LARGE - 2) {
+				int k = (j + 1 + random.nextInt(LARGE - 2 - (j - i))) % LARGE;
+				moveSegment(tour, i, j, k, distanceMatrix);
+			}
+		}
+
+		if (failures > 0) {
+			System.out.println(failures + " checks failed");
+			System.exit(1);
+		}
+		System.out.println("all checks passed");
+	}
+
+	// distances between n random cities
+	private static DistanceMatrix cities(int n, Random random) {
+		City[] cities = new City[n];
+		for (int i = 0; i < n; i++) {
+			cities[i] = new City(random.nextInt(10000), random.nextInt(10000));
+		}
+		return new DistanceMatrix(new CityTable(cities));
+	}
+
+	// checks swapDelta() and swap() on a copy of tour
+	private static void swap(Tour tour, int i, int j, DistanceMatrix distanceMatrix) {
+		Tour copy = new Tour(tour);
+		double delta = copy.swapDelta(i, j, distanceMatrix);
+		copy.swap(i, j, distanceMatrix);
+		check("swap(" + i + "," + j + ")", tour, copy, delta, distanceMatrix);
+	}
+
+	// checks reverseDelta() and reverse() on a copy of tour
+	private static void reverse(Tour tour, int i, int j, DistanceMatrix distanceMatrix) {
+		Tour copy = new Tour(tour);
+		double delta = copy.reverseDelta(i, j, distanceMatrix);
+		copy.reverse(i, j, distanceMatrix);
+		check("reverse(" + i + "," + j + ")", tour, copy, delta, distanceMatrix);
+	}
+
+	// checks moveSegmentDelta() and moveSegment() on a copy of tour
+	private static void moveSegment(Tour tour, int i, int j, int k, DistanceMatrix distanceMatrix) {
+		Tour copy = new Tour(tour);
+		double delta = copy.moveSegmentDelta(i, j, k, distanceMatrix);
+		copy.moveSegment(i, j, k, distanceMatrix);
+		check("moveSegment(" + i + "," + j + "," + k + ")", tour, copy, delta, distanceMatrix);
+	}
+
+	/**
+	 * Compares the delta and the length kept by the moved tour with a
+	 * full calculateDistance() of the moved tour.
+	 *
+	 * @param name move, for the message
+	 * @param tour tour before the move
+	 * @param moved copy of the tour after the move
+	 * @param delta change the delta method gave before the move
+	 * @param distanceMatrix distance between every pair of cities
+	 */
+	private static void check(String name, Tour tour, Tour moved, double delta, DistanceMatrix distanceMatrix) {
+		Tour full = new Tour(moved.getPath().clone());
+		full.calculateDistance(distanceMatrix);
+		double expected = full.getEucDistance() - tour.getEucDistance();
+		String at = name + " of " + tour.getTourSize() + " cities";
+		if (Math.abs(delta - expected) > EPSILON) {
+			fail(at + ": delta " + delta + ", full recompute " + expected);
+		}
+		if (Math.abs(moved.getEucDistance() - full.getEucDistance()) > EPSILON) {
+			fail(at + ": kept length " + moved.getEucDistance() + ", full recompute " + full.getEucDistance());
+		}
+		if (moved.getHash() != full.getHash()) {
+			fail(at + ": stale hash");
+		}
+	}
+
+	// reports a failed check
+	private static void fail(String message) {
+		System.out.println("FAILED " + message);
+		failures++;
+	}
+
+}
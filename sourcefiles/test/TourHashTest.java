@@ -0,0 +1,168 @@
+import java.util.Random;
+
+/**
+ * Class TourHashTest checks the edge hash of Tour, which Population,
+ * LongHashSet and FlatPopulation use to find duplicate tours:
+ *
+ *     - the hash of a cycle is the same whatever city it starts at and
+ *       whichever way it is walked
+ *     - two different cycles of 8 cities have different hashes, all
+ *       2520 cycles are tried
+ *     - the hash kept by swap(), reverse() and moveSegment() is the hash
+ *       of the new path
+ *     - hash() of a tour stored at an offset is the hash of the tour
+ *
+ *     javac -cp pj2.jar -d out sourcefiles/parallel/*.java sourcefiles/test/*.java
+ *     java -cp pj2.jar:out TourHashTest
+ *
+ * The exit status is 1 if a check fails.
+ *
+ * @author Satyajeet Shahane, Ajeeth Kannan
+ */
+public class TourHashTest {
+
+	private static final int N = 50; // cities of the random tours
+	private static final int TOURS = 200; // random tours
+	private static final int SMALL = 8; // cities of the tours which are all tried
+
+	private static int failures; // checks which failed
+
+	/**
+	 * main method
+	 *
+	 * @param args not used
+	 */
+	public static void main(String[] args) {
+		Random random = new Random(1);
+		City[] cities = new City[N];
+		for (int i = 0; i < N; i++) {
+			cities[i] = new City(random.nextInt(10000), random.nextInt(10000));
+		}
+		DistanceMatrix distanceMatrix = new DistanceMatrix(new CityTable(cities));
+
+		for (int t = 0; t < TOURS; t++) {
+			Tour tour = new Tour(N);
+			tour.Shuffle(random);
+			int[] path = tour.getPath();
+			long hash = Tour.hash(path, 0, N);
+			if (tour.getHash() != hash) {
+				fail("tour " + t + " has a hash which is not hash() of its path");
+			}
+			for (int r = 0; r < N; r++) {
+				int[] rotated = new int[N];
+				int[] reflected = new int[N];
+				for (int i = 0; i < N; i++) {
+					rotated[i] = path[(i + r) % N];
+					reflected[i] = path[(r - i + N) % N];
+				}
+				if (Tour.hash(rotated, 0, N) != hash) {
+					fail("tour " + t + " has another hash when rotated by " + r);
+				}
+				if (Tour.hash(reflected, 0, N) != hash) {
+					fail("tour " + t + " has another hash when reflected at " + r);
+				}
+			}
+
+			// the same tour stored at an offset
+			int off = 1 + random.nextInt(N);
+			int[] genes = new int[off + N + 3];
+			System.arraycopy(path, 0, genes, off, N);
+			if (Tour.hash(genes, off, N) != hash) {
+				fail("tour " + t + " has another hash at offset " + off);
+			}
+
+			// moves keep the hash up to date
+			tour.calculateDistance(distanceMatrix);
+			int i = random.nextInt(N);
+			int j = random.nextInt(N);
+			tour.swap(i, j, distanceMatrix);
+			checkHash("swap(" + i + "," + j + ") of tour " + t, tour);
+			i = random.nextInt(N);
+			j = i + random.nextInt(N - i);
+			tour.reverse(i, j, distanceMatrix);
+			checkHash("reverse(" + i + "," + j + ") of tour " + t, tour);
+			i = 1 + random.nextInt(N - 3);
+			j = i + random.nextInt(N - 2 - i);
+			int k = j + 1 + random.nextInt(N - 1 - j);
+			tour.moveSegment(i, j, k, distanceMatrix);
+			checkHash("moveSegment(" + i + "," + j + "," + k + ") of tour " + t, tour);
+		}
+
+		allCycles();
+
+		if (failures > 0) {
+			System.out.println(failures + " checks failed");
+			System.exit(1);
+		}
+		System.out.println("all checks passed");
+	}
+
+	/**
+	 * Hashes every permutation of SMALL cities which starts at city 0.
+	 * A permutation and its reflection are the same cycle and must have
+	 * the same hash, all the other cycles must have different hashes.
+	 */
+	private static void allCycles() {
+		int[] path = new int[SMALL];
+		for (int i = 0; i < SMALL; i++) {
+			path[i] = i;
+		}
+		LongHashSet hashes = new LongHashSet();
+		int permutations = 0;
+		do {
+			permutations++;
+			long hash = Tour.hash(path, 0, SMALL);
+			// each cycle is walked both ways, count it when path[1] < path[SMALL - 1]
+			if (path[1] < path[SMALL - 1] && !hashes.add(hash)) {
+				fail("two cycles of " + SMALL + " cities have the same hash " + hash);
+			}
+		}
+		while (nextPermutation(path));
+		int cycles = permutations / 2;
+		if (hashes.size() != cycles) {
+			fail(hashes.size() + " hashes for " + cycles + " cycles of " + SMALL + " cities");
+		}
+		// the other direction of every cycle has a hash which is already there
+		for (int i = 0; i < SMALL; i++) {
+			path[i] = i;
+		}
+		do {
+			if (path[1] > path[SMALL - 1] && !hashes.contains(Tour.hash(path, 0, SMALL))) {
+				fail("a cycle walked backwards has another hash");
+			}
+		}
+		while (nextPermutation(path));
+	}
+
+	// next permutation of path[1..] in lexicographic order, false after the last
+	private static boolean nextPermutation(int[] path) {
+		int i = path.length - 2;
+		while (i >= 1 && path[i] > path[i + 1]) {
+			i--;
+		}
+		if (i < 1) {
+			return false;
+		}
+		int j = path.length - 1;
+		while (path[j] < path[i]) {
+			j--;
+		}
+		Tour.swap(path, 0, i, j);
+		Tour.reverse(path, 0, i + 1, path.length - 1);
+		return true;
+	}
+
+	// checks the hash kept by a tour after a move
+	private static void checkHash(String name, Tour tour) {
+		if (tour.getHash() != Tour.hash(tour.getPath(), 0, tour.getTourSize())) {
+			fail(name + " leaves a stale hash");
+		}
+	}
+
+	// reports a failed check
+	private static void fail(String message) {
+		System.out.println("FAILED " + message);
+		failures++;
+	}
+
+}